@@ -0,0 +1,613 @@
+package com.ecommerce.cartservice.cache;
+
+import com.ecommerce.cartservice.cache.codec.CartItemCodec;
+import com.ecommerce.cartservice.entity.Cart;
+import com.ecommerce.cartservice.entity.CartItem;
+import com.ecommerce.cartservice.exception.CartNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Redis copy of each user's cart, stored as one hash per user with a field per product:
+ * {@code q:<productId>} holds the quantity, {@code i:<productId>} the product details captured
+ * when the item was added and {@code o:<productId>} its position. Item edits are Lua scripts
+ * that touch only the affected fields and maintain the item count, so each edit is a single
+ * round trip and concurrent edits from several tabs cannot overwrite each other. The script
+ * returns the whole hash, which is what the response is built from.
+ *
+ * In write-behind mode the hash is the source of truth: every edit bumps its version and
+ * records the user in a dirty set scored by the time the cart is due to be flushed to Mongo.
+ * The first edit sets the due time, so later edits inside the flush interval coalesce into
+ * the same Mongo write. Deleted carts are kept as a tombstone until the delete has been
+ * flushed, so reads never fall back to a stale Mongo copy. The dirty set lives in Redis
+ * rather than in memory, so carts edited just before a crash are still flushed by the next
+ * replica to run a pass.
+ *
+ * Item details are written with the codec named by {@code cart.cache.codec}. Any known
+ * format is read, and items found in another format are rewritten on read.
+ */
+@Component
+public class CartCache {
+    private static final Logger logger = LoggerFactory.getLogger(CartCache.class);
+
+    private static final String KEY_PREFIX = "cart:";
+    private static final String HASH_PREFIX = KEY_PREFIX + "h:";
+    private static final String DIRTY_KEY = KEY_PREFIX + "dirty";
+    // Carts written before the hash layout were a single JSON value under cart:<userId>
+    private static final String LEGACY_TOMBSTONE = "-";
+
+    private static final String ID = "id";
+    private static final String CREATED_AT = "createdAt";
+    private static final String UPDATED_AT = "updatedAt";
+    private static final String VERSION = "v";
+    private static final String ITEM_COUNT = "n";
+    private static final String SEQUENCE = "seq";
+    private static final String DELETED = "del";
+    private static final String QUANTITY_PREFIX = "q:";
+    private static final String ITEM_PREFIX = "i:";
+    private static final String ORDER_PREFIX = "o:";
+
+    // Edit scripts: KEYS = [hash, dirty set], ARGV = [userId, now, ttl, flush due time or '', ...].
+    // They return nil when the cart is not cached, so the caller can load it and retry.
+    private static final String TOUCH =
+            "local function touch() "
+                    + "redis.call('HINCRBY', KEYS[1], 'v', 1) "
+                    + "redis.call('HSET', KEYS[1], 'updatedAt', ARGV[2]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[3]) "
+                    + "if ARGV[4] ~= '' then redis.call('ZADD', KEYS[2], 'NX', ARGV[4], ARGV[1]) end "
+                    + "end ";
+
+    // ARGV[5] = productId, ARGV[6] = quantity, ARGV[7] = item details, ARGV[8] = id for a new cart
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ADD_ITEM = new DefaultRedisScript<>(TOUCH
+            + "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end "
+            + "if redis.call('HDEL', KEYS[1], 'del') == 1 then redis.call('HSET', KEYS[1], 'createdAt', ARGV[2]) end "
+            + "redis.call('HSETNX', KEYS[1], 'id', ARGV[8]) "
+            + "local q = 'q:' .. ARGV[5] "
+            + "if redis.call('HEXISTS', KEYS[1], q) == 0 then "
+            + "  redis.call('HSET', KEYS[1], 'i:' .. ARGV[5], ARGV[7], 'o:' .. ARGV[5], redis.call('HINCRBY', KEYS[1], 'seq', 1)) "
+            + "end "
+            + "redis.call('HINCRBY', KEYS[1], q, ARGV[6]) "
+            + "redis.call('HINCRBY', KEYS[1], 'n', ARGV[6]) "
+            + "touch() "
+            + "return redis.call('HGETALL', KEYS[1])", List.class);
+
+    // ARGV[5] = productId, ARGV[6] = new quantity; returns an empty list if the item is not in the cart
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SET_QUANTITY = new DefaultRedisScript<>(TOUCH
+            + "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end "
+            + "local q = 'q:' .. ARGV[5] "
+            + "local old = redis.call('HGET', KEYS[1], q) "
+            + "if not old then return {} end "
+            + "redis.call('HSET', KEYS[1], q, ARGV[6]) "
+            + "redis.call('HINCRBY', KEYS[1], 'n', tonumber(ARGV[6]) - tonumber(old)) "
+            + "touch() "
+            + "return redis.call('HGETALL', KEYS[1])", List.class);
+
+    // ARGV[5] = productId; removing the last item turns the cart into a tombstone
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REMOVE_ITEM = new DefaultRedisScript<>(TOUCH
+            + "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end "
+            + "local q = 'q:' .. ARGV[5] "
+            + "local old = redis.call('HGET', KEYS[1], q) "
+            + "if not old then return {} end "
+            + "redis.call('HDEL', KEYS[1], q, 'i:' .. ARGV[5], 'o:' .. ARGV[5]) "
+            + "if redis.call('HINCRBY', KEYS[1], 'n', -tonumber(old)) <= 0 then "
+            + "  redis.call('HSET', KEYS[1], 'del', '1', 'n', 0) "
+            + "end "
+            + "touch() "
+            + "return redis.call('HGETALL', KEYS[1])", List.class);
+
+    // ARGV[5] = id for a new cart, then (op, productId, quantity, item details) per change, op being
+    // add, set or remove. Checks every change first and returns {'missing', productId} without
+    // touching the cart if one updates or removes an item that is not in it at that point.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> APPLY_CHANGES = new DefaultRedisScript<>(TOUCH
+            + "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end "
+            + "local present = {} "
+            + "for i = 6, #ARGV, 4 do "
+            + "  local p = ARGV[i + 1] "
+            + "  if ARGV[i] == 'add' then present[p] = true "
+            + "  else "
+            + "    local known = present[p] "
+            + "    if known == nil then known = redis.call('HEXISTS', KEYS[1], 'q:' .. p) == 1 end "
+            + "    if not known then return {'missing', p} end "
+            + "    present[p] = ARGV[i] == 'set' and tonumber(ARGV[i + 2]) > 0 "
+            + "  end "
+            + "end "
+            + "redis.call('HSETNX', KEYS[1], 'id', ARGV[5]) "
+            + "for i = 6, #ARGV, 4 do "
+            + "  local p = ARGV[i + 1] "
+            + "  local qty = tonumber(ARGV[i + 2]) "
+            + "  local q = 'q:' .. p "
+            + "  local old = tonumber(redis.call('HGET', KEYS[1], q) or '0') "
+            + "  if ARGV[i] == 'add' then "
+            + "    if redis.call('HDEL', KEYS[1], 'del') == 1 then redis.call('HSET', KEYS[1], 'createdAt', ARGV[2]) end "
+            + "    if redis.call('HEXISTS', KEYS[1], q) == 0 then "
+            + "      redis.call('HSET', KEYS[1], 'i:' .. p, ARGV[i + 3], 'o:' .. p, redis.call('HINCRBY', KEYS[1], 'seq', 1)) "
+            + "    end "
+            + "    redis.call('HINCRBY', KEYS[1], q, qty) "
+            + "    redis.call('HINCRBY', KEYS[1], 'n', qty) "
+            + "  elseif ARGV[i] == 'set' and qty > 0 then "
+            + "    redis.call('HSET', KEYS[1], q, qty) "
+            + "    redis.call('HINCRBY', KEYS[1], 'n', qty - old) "
+            + "  else "
+            + "    redis.call('HDEL', KEYS[1], q, 'i:' .. p, 'o:' .. p) "
+            + "    redis.call('HINCRBY', KEYS[1], 'n', -old) "
+            + "  end "
+            + "end "
+            + "if tonumber(redis.call('HGET', KEYS[1], 'n')) <= 0 then redis.call('HSET', KEYS[1], 'del', '1', 'n', 0) end "
+            + "touch() "
+            + "return redis.call('HGETALL', KEYS[1])", List.class);
+
+    // The version is carried across the DEL: restarting it would let a flush that read an
+    // earlier state with the same version number complete against the tombstone
+    private static final RedisScript<Long> DELETE_CART = new DefaultRedisScript<>(TOUCH
+            + "local id = redis.call('HGET', KEYS[1], 'id') "
+            + "local version = redis.call('HGET', KEYS[1], 'v') or '0' "
+            + "redis.call('DEL', KEYS[1]) "
+            + "redis.call('HSET', KEYS[1], 'del', '1', 'n', 0, 'v', version) "
+            + "if id then redis.call('HSET', KEYS[1], 'id', id) end "
+            + "touch() "
+            + "return tonumber(redis.call('HGET', KEYS[1], 'v'))", Long.class);
+
+    // KEYS = [hash], ARGV = [ttl, field, value, ...]
+    private static final RedisScript<Long> LOAD = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+                    + "redis.call('HSET', KEYS[1], unpack(ARGV, 2)) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "return 1", Long.class);
+
+    // KEYS = [hash], ARGV = [field, expected value, new value, ...]; skips items edited meanwhile
+    private static final RedisScript<Long> UPGRADE = new DefaultRedisScript<>(
+            "for i = 1, #ARGV, 3 do "
+                    + "  if redis.call('HGET', KEYS[1], ARGV[i]) == ARGV[i + 1] then "
+                    + "    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 2]) "
+                    + "  end "
+                    + "end "
+                    + "return 1", Long.class);
+
+    // Leasing the claimed entries keeps other replicas from flushing the same carts concurrently
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) "
+                    + "for _, id in ipairs(ids) do redis.call('ZADD', KEYS[1], 'XX', ARGV[3], id) end "
+                    + "return ids", List.class);
+
+    // Clears the dirty flag only if the cart was not edited while it was being flushed
+    private static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>(
+            "local version = redis.call('HGET', KEYS[1], 'v') or '' "
+                    + "if version == ARGV[1] then "
+                    + "  redis.call('ZREM', KEYS[2], ARGV[2]) "
+                    + "  if redis.call('HEXISTS', KEYS[1], 'del') == 1 then redis.call('DEL', KEYS[1]) end "
+                    + "  return 1 "
+                    + "end "
+                    + "redis.call('ZADD', KEYS[2], 'XX', ARGV[3], ARGV[2]) "
+                    + "return 0", Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final List<CartItemCodec> codecs;
+    private final CartItemCodec writer;
+    private final long ttlSeconds;
+    private final long flushIntervalMs;
+    private final boolean writeBehind;
+
+    public CartCache(@Qualifier("cartRedisTemplate") RedisTemplate<String, String> redisTemplate,
+                     ObjectMapper objectMapper,
+                     List<CartItemCodec> codecs,
+                     @Value("${cart.cache.codec:compact}") String codecName,
+                     @Value("${cart.cache.ttl-seconds:604800}") long ttlSeconds,
+                     @Value("${cart.write-behind.flush-interval-ms:5000}") long flushIntervalMs,
+                     @Value("${cart.write-behind.enabled:true}") boolean writeBehind) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.codecs = codecs;
+        this.writer = codecs.stream()
+                .filter(codec -> codec.name().equals(codecName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown cart cache codec: " + codecName));
+        this.ttlSeconds = ttlSeconds;
+        this.flushIntervalMs = flushIntervalMs;
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * The cached cart, an empty cart if a delete is still waiting to be flushed, or empty
+     * if the user has nothing cached.
+     */
+    public Optional<Cart> get(Long userId) {
+        Map<String, String> fields = entries(userId);
+        if (fields.isEmpty() && migrateLegacy(userId)) {
+            fields = entries(userId);
+        }
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> upgrades = new ArrayList<>();
+        Cart cart = toCart(userId, fields, upgrades);
+        if (!upgrades.isEmpty()) {
+            upgradeItems(userId, upgrades);
+        }
+        return Optional.of(cart);
+    }
+
+    /**
+     * The cached cart, caching the one supplied by {@code loader} first if there is none.
+     */
+    public Cart get(Long userId, Supplier<Cart> loader) {
+        return get(userId).orElseGet(() -> {
+            load(loader.get());
+            return get(userId).orElseThrow(() -> new IllegalStateException("Cart for user " + userId + " vanished after loading"));
+        });
+    }
+
+    public Cart addItem(Long userId, CartItem item, int quantity, Supplier<Cart> loader) {
+        return edit(ADD_ITEM, userId, loader, item.getProductId().toString(), String.valueOf(quantity),
+                encodeItem(item), new ObjectId().toHexString())
+                .orElseThrow(() -> new IllegalStateException("Adding an item returned no cart"));
+    }
+
+    /**
+     * @return empty if the product is not in the cart
+     */
+    public Optional<Cart> setQuantity(Long userId, Long productId, int quantity, Supplier<Cart> loader) {
+        return edit(SET_QUANTITY, userId, loader, productId.toString(), String.valueOf(quantity));
+    }
+
+    /**
+     * @return empty if the product is not in the cart
+     */
+    public Optional<Cart> removeItem(Long userId, Long productId, Supplier<Cart> loader) {
+        return edit(REMOVE_ITEM, userId, loader, productId.toString());
+    }
+
+    /**
+     * Apply all changes in order as one atomic edit. A cart left without items becomes a
+     * tombstone, as with {@link #removeItem}.
+     *
+     * @throws CartNotFoundException if a change updates or removes an item not in the cart at
+     *                               that point; the cart is then left unchanged
+     */
+    public Cart applyChanges(Long userId, List<ItemChange> changes, Supplier<Cart> loader) {
+        List<String> args = new ArrayList<>();
+        args.add(new ObjectId().toHexString());
+        for (ItemChange change : changes) {
+            args.add(change.op);
+            args.add(change.productId.toString());
+            args.add(String.valueOf(change.quantity));
+            args.add(change.item != null ? encodeItem(change.item) : "");
+        }
+        List<?> result = execute(APPLY_CHANGES, userId, loader, args.toArray(new String[0]));
+        if (result.size() == 2 && "missing".equals(result.get(0))) {
+            throw new CartNotFoundException("Item not found in cart: " + result.get(1));
+        }
+        return toCart(userId, toMap(result));
+    }
+
+    /**
+     * @return the revision of the tombstone
+     */
+    public long markDeleted(Long userId) {
+        Long revision = redisTemplate.execute(DELETE_CART, List.of(hashKey(userId), DIRTY_KEY), touchArgs(userId).toArray());
+        return revision != null ? revision : 0;
+    }
+
+    public void evict(Long userId) {
+        redisTemplate.delete(List.of(hashKey(userId), legacyKey(userId)));
+    }
+
+    /**
+     * Claim up to {@code limit} carts whose flush is due by {@code cutoff} (epoch millis),
+     * leasing them until {@code leaseUntil} so no other replica picks them up meanwhile.
+     */
+    public List<Long> claimDue(long cutoff, int limit, long leaseUntil) {
+        List<?> ids = redisTemplate.execute(CLAIM, Collections.singletonList(DIRTY_KEY),
+                String.valueOf(cutoff), String.valueOf(limit), String.valueOf(leaseUntil));
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        return ids.stream().map(id -> Long.valueOf(id.toString())).collect(Collectors.toList());
+    }
+
+    public Pending pending(Long userId) {
+        Map<String, String> fields = entries(userId);
+        if (fields.isEmpty() && migrateLegacy(userId)) {
+            fields = entries(userId);
+        }
+        if (fields.isEmpty()) {
+            return new Pending(userId, "", false, null);
+        }
+        return new Pending(userId, fields.getOrDefault(VERSION, ""), fields.containsKey(DELETED),
+                toCart(userId, fields));
+    }
+
+    /**
+     * Record that the given state reached Mongo.
+     *
+     * @return false if the cart changed during the flush and is due again
+     */
+    public boolean complete(Pending pending) {
+        Long cleared = redisTemplate.execute(COMPLETE,
+                List.of(hashKey(pending.getUserId()), DIRTY_KEY),
+                pending.getVersion(),
+                pending.getUserId().toString(),
+                String.valueOf(System.currentTimeMillis()));
+        return cleared != null && cleared == 1L;
+    }
+
+    // Release a claimed cart whose flush failed so it is retried on a later pass
+    public void retryLater(Long userId) {
+        redisTemplate.opsForZSet().add(DIRTY_KEY, userId.toString(), System.currentTimeMillis() + flushIntervalMs);
+    }
+
+    public long dirtyCount() {
+        Long size = redisTemplate.opsForZSet().size(DIRTY_KEY);
+        return size != null ? size : 0;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Optional<Cart> edit(RedisScript<List> script, Long userId, Supplier<Cart> loader, String... args) {
+        List<?> result = execute(script, userId, loader, args);
+        return result.isEmpty() ? Optional.empty() : Optional.of(toCart(userId, toMap(result)));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private List<?> execute(RedisScript<List> script, Long userId, Supplier<Cart> loader, String... args) {
+        List<String> argv = touchArgs(userId);
+        Collections.addAll(argv, args);
+        List<String> keys = List.of(hashKey(userId), DIRTY_KEY);
+
+        List<?> result = redisTemplate.execute(script, keys, argv.toArray());
+        if (result == null) {
+            // Not cached yet; a concurrent load between these calls is harmless since LOAD never overwrites
+            if (!migrateLegacy(userId)) {
+                load(loader.get());
+            }
+            result = redisTemplate.execute(script, keys, argv.toArray());
+        }
+        if (result == null) {
+            throw new IllegalStateException("Cart for user " + userId + " vanished after loading");
+        }
+        return result;
+    }
+
+    private List<String> touchArgs(Long userId) {
+        List<String> argv = new ArrayList<>();
+        argv.add(userId.toString());
+        argv.add(LocalDateTime.now().toString());
+        argv.add(String.valueOf(ttlSeconds));
+        argv.add(writeBehind ? String.valueOf(System.currentTimeMillis() + flushIntervalMs) : "");
+        return argv;
+    }
+
+    private void load(Cart cart) {
+        load(cart.getUserId(), toFields(cart));
+    }
+
+    private void load(Long userId, Map<String, String> fields) {
+        List<String> argv = new ArrayList<>();
+        argv.add(String.valueOf(ttlSeconds));
+        fields.forEach((field, value) -> {
+            argv.add(field);
+            argv.add(value);
+        });
+        redisTemplate.execute(LOAD, Collections.singletonList(hashKey(userId)), argv.toArray());
+    }
+
+    /**
+     * Convert a cart cached in the old single-value layout. Any pending flush for it is
+     * still recorded in the dirty set, and the flush now reads the hash instead.
+     *
+     * @return false if there was nothing to convert
+     */
+    private boolean migrateLegacy(Long userId) {
+        String value = redisTemplate.opsForValue().get(legacyKey(userId));
+        if (value == null) {
+            return false;
+        }
+        if (LEGACY_TOMBSTONE.equals(value)) {
+            Map<String, String> fields = new HashMap<>();
+            fields.put(DELETED, "1");
+            fields.put(ITEM_COUNT, "0");
+            fields.put(VERSION, "0");
+            load(userId, fields);
+        } else {
+            try {
+                load(objectMapper.readValue(value.getBytes(StandardCharsets.ISO_8859_1), Cart.class));
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to deserialize cached cart for user " + userId, e);
+            }
+        }
+        redisTemplate.delete(legacyKey(userId));
+        return true;
+    }
+
+    private Map<String, String> toFields(Cart cart) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(ID, cart.getId() != null ? cart.getId() : new ObjectId().toHexString());
+        fields.put(CREATED_AT, String.valueOf(cart.getCreatedAt()));
+        fields.put(UPDATED_AT, String.valueOf(cart.getUpdatedAt()));
+        // Continue from the revision Mongo holds, so later writes are recognised as newer
+        fields.put(VERSION, String.valueOf(cart.getRevision() != null ? cart.getRevision() : 0));
+        int count = 0;
+        int position = 0;
+        for (CartItem item : cart.getItems()) {
+            String productId = item.getProductId().toString();
+            fields.put(QUANTITY_PREFIX + productId, String.valueOf(item.getQuantity()));
+            fields.put(ITEM_PREFIX + productId, encodeItem(item));
+            fields.put(ORDER_PREFIX + productId, String.valueOf(++position));
+            count += item.getQuantity();
+        }
+        fields.put(ITEM_COUNT, String.valueOf(count));
+        fields.put(SEQUENCE, String.valueOf(position));
+        return fields;
+    }
+
+    private Cart toCart(Long userId, Map<String, String> fields) {
+        return toCart(userId, fields, null);
+    }
+
+    /**
+     * @param upgrades if not null, collects (field, current value, rewritten value) for items
+     *                 not stored in the configured format
+     */
+    private Cart toCart(Long userId, Map<String, String> fields, List<String> upgrades) {
+        Cart cart = new Cart();
+        cart.setId(fields.get(ID));
+        cart.setUserId(userId);
+        cart.setRevision(Long.valueOf(fields.getOrDefault(VERSION, "0")));
+        if (fields.containsKey(CREATED_AT)) {
+            cart.setCreatedAt(parseTime(fields.get(CREATED_AT)));
+        }
+
+        List<CartItem> items = new ArrayList<>();
+        Map<CartItem, Long> positions = new HashMap<>();
+        fields.forEach((field, value) -> {
+            if (!field.startsWith(ITEM_PREFIX)) {
+                return;
+            }
+            String productId = field.substring(ITEM_PREFIX.length());
+            String quantity = fields.get(QUANTITY_PREFIX + productId);
+            if (quantity == null) {
+                return;
+            }
+            byte[] data = value.getBytes(StandardCharsets.ISO_8859_1);
+            CartItemCodec codec = codecFor(data);
+            CartItem item = codec.decode(data);
+            if (upgrades != null && codec != writer) {
+                Collections.addAll(upgrades, field, value, encodeItem(item));
+            }
+            item.setProductId(Long.valueOf(productId));
+            item.updateQuantity(Integer.parseInt(quantity));
+            items.add(item);
+            positions.put(item, Long.valueOf(fields.getOrDefault(ORDER_PREFIX + productId, "0")));
+        });
+        items.sort(Comparator.comparing(positions::get));
+        cart.setItems(items);
+
+        // Prices stay BigDecimal on this side; the scripts only maintain the integer item count
+        cart.updateTotals();
+        if (fields.containsKey(UPDATED_AT)) {
+            cart.setUpdatedAt(parseTime(fields.get(UPDATED_AT)));
+        }
+        return cart;
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return "null".equals(value) ? LocalDateTime.now() : LocalDateTime.parse(value);
+    }
+
+    private Map<String, String> entries(Long userId) {
+        Map<String, String> fields = new HashMap<>();
+        redisTemplate.opsForHash().entries(hashKey(userId))
+                .forEach((field, value) -> fields.put(field.toString(), value.toString()));
+        return fields;
+    }
+
+    private static Map<String, String> toMap(List<?> flat) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            fields.put(flat.get(i).toString(), flat.get(i + 1).toString());
+        }
+        return fields;
+    }
+
+    private void upgradeItems(Long userId, List<String> upgrades) {
+        try {
+            redisTemplate.execute(UPGRADE, Collections.singletonList(hashKey(userId)), upgrades.toArray());
+            logger.debug("Rewrote {} cached items of user {} as {}", upgrades.size() / 3, userId, writer.name());
+        } catch (Exception e) {
+            // The old format stays readable; the rewrite is retried on the next read
+            logger.warn("Failed to rewrite cached cart items of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private CartItemCodec codecFor(byte[] data) {
+        for (CartItemCodec codec : codecs) {
+            if (codec.canDecode(data)) {
+                return codec;
+            }
+        }
+        throw new IllegalStateException("Cached cart item is in an unknown format");
+    }
+
+    // Redis strings of the cart template are ISO-8859-1, so every byte survives as one char
+    private String encodeItem(CartItem item) {
+        return new String(writer.encode(item), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String hashKey(Long userId) {
+        return HASH_PREFIX + userId;
+    }
+
+    private static String legacyKey(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    /**
+     * One step of {@link #applyChanges}.
+     */
+    public static final class ItemChange {
+        private final String op;
+        private final Long productId;
+        private final int quantity;
+        private final CartItem item;
+
+        private ItemChange(String op, Long productId, int quantity, CartItem item) {
+            this.op = op;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.item = item;
+        }
+
+        // The item's details are only recorded if the product is not already in the cart
+        public static ItemChange add(CartItem item, int quantity) {
+            return new ItemChange("add", item.getProductId(), quantity, item);
+        }
+
+        // A quantity of 0 or less removes the item
+        public static ItemChange setQuantity(Long productId, int quantity) {
+            return new ItemChange("set", productId, quantity, null);
+        }
+
+        public static ItemChange remove(Long productId) {
+            return new ItemChange("remove", productId, 0, null);
+        }
+    }
+
+    /**
+     * A dirty cart as read for flushing, with the version the flush is based on.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Pending {
+        private final Long userId;
+        private final String version;
+        private final boolean deleted;
+        private final Cart cart;
+    }
+}
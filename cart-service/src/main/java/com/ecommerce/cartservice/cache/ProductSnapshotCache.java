@@ -0,0 +1,131 @@
+package com.ecommerce.cartservice.cache;
+
+import com.ecommerce.cartservice.dto.ProductDto;
+import com.ecommerce.cartservice.dto.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-process projection of the product details carts need (name, price, image,
+ * active flag), so adding to a cart normally does not call product-service. Products are
+ * fetched from product-service on first use; after that, change events from the
+ * product-changed topic (see ProductChangedConsumer) are merged into the entries held here.
+ * Events for products not held are ignored, as they only carry the fields that changed.
+ * Entries also expire after a TTL, which bounds staleness if an event is lost.
+ *
+ * Events are ordered against a snapshot only by product-service's own timestamps (the
+ * fetched product's updatedAt, then the changedAt of each applied event), never by this
+ * service's clock, so clock skew between the two services cannot cause real changes to be
+ * dropped.
+ */
+@Component
+public class ProductSnapshotCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSnapshotCache.class);
+
+    private final boolean enabled;
+    private final Cache<Long, Snapshot> cache;
+
+    public ProductSnapshotCache(
+            @Value("${product.snapshot.enabled:true}") boolean enabled,
+            @Value("${product.snapshot.max-size:50000}") long maxSize,
+            @Value("${product.snapshot.ttl:600}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Snapshots of the given products; missing ones are fetched together through
+     * {@code loader}. Products the loader does not return are absent from the result.
+     */
+    public Map<Long, ProductDto> getAll(Collection<Long> productIds,
+                                        Function<List<Long>, Map<Long, ProductDto>> loader) {
+        if (!enabled) {
+            return loader.apply(new ArrayList<>(productIds));
+        }
+        Map<Long, Snapshot> snapshots = cache.getAll(productIds, missing -> {
+            List<Long> ids = new ArrayList<>();
+            missing.forEach(ids::add);
+            logger.debug("Product snapshot miss, fetching products: {}", ids);
+            return loader.apply(ids).entrySet().stream()
+                    .filter(entry -> entry.getValue() != null)
+                    .collect(Collectors.toMap(Map.Entry::getKey,
+                            entry -> new Snapshot(entry.getValue(), lastChanged(entry.getValue()))));
+        });
+        return snapshots.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().product));
+    }
+
+    /**
+     * Merge a change event into the held snapshot, unless the snapshot is already newer.
+     */
+    public void apply(ProductChangedEvent event) {
+        cache.asMap().computeIfPresent(event.getProductId(), (id, current) -> {
+            if (event.getChangedAt() < current.changedAt) {
+                return current;
+            }
+            ProductDto product = copy(current.product);
+            if (event.getName() != null) {
+                product.setName(event.getName());
+            }
+            if (event.getPrice() != null) {
+                product.setPrice(event.getPrice());
+            }
+            if (event.getAvailableQuantity() != null) {
+                product.setInStock(event.getAvailableQuantity() > 0);
+            }
+            if (event.getActive() != null) {
+                product.setActive(event.getActive());
+            }
+            return new Snapshot(product, event.getChangedAt());
+        });
+    }
+
+    // Both services are assumed to run in the same time zone, as the product timestamp carries none.
+    // Without a timestamp no event is considered older than the snapshot.
+    private static long lastChanged(ProductDto product) {
+        return product.getUpdatedAt() != null
+                ? product.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : Long.MIN_VALUE;
+    }
+
+    // Held snapshots are shared between requests, so a change builds a new one
+    private static ProductDto copy(ProductDto source) {
+        ProductDto product = new ProductDto();
+        product.setId(source.getId());
+        product.setName(source.getName());
+        product.setDescription(source.getDescription());
+        product.setPrice(source.getPrice());
+        product.setSku(source.getSku());
+        product.setImageUrl(source.getImageUrl());
+        product.setInStock(source.isInStock());
+        product.setActive(source.isActive());
+        product.setUpdatedAt(source.getUpdatedAt());
+        return product;
+    }
+
+    private static final class Snapshot {
+        final ProductDto product;
+        final long changedAt;
+
+        Snapshot(ProductDto product, long changedAt) {
+            this.product = product;
+            this.changedAt = changedAt;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.cartservice.cache.codec;
+
+import com.ecommerce.cartservice.entity.CartItem;
+
+/**
+ * Format of the product details cached for each cart item. Only the details are encoded:
+ * the product id is part of the hash field name, and quantity and line total are kept
+ * in separate fields.
+ */
+public interface CartItemCodec {
+
+    /**
+     * Name used to select the codec for writing ({@code cart.cache.codec}).
+     */
+    String name();
+
+    byte[] encode(CartItem item);
+
+    /**
+     * Whether {@code data} was written by this codec, judged from its leading bytes.
+     */
+    boolean canDecode(byte[] data);
+
+    CartItem decode(byte[] data);
+}
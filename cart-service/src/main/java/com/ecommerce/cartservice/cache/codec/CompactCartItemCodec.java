@@ -0,0 +1,130 @@
+package com.ecommerce.cartservice.cache.codec;
+
+import com.ecommerce.cartservice.entity.CartItem;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hand-rolled binary layout for cached item details:
+ *
+ * <pre>
+ * version (1 byte) | presence flags (1 byte) | name? | price? | imageUrl? | sku?
+ * </pre>
+ *
+ * Strings are a varint byte length followed by UTF-8; the price is its zigzag varint scale
+ * followed by the length-prefixed two's-complement unscaled value. The leading version byte
+ * is below any printable character, so it can never be mistaken for a JSON payload; a new
+ * layout gets a new version and this codec keeps decoding the old ones.
+ */
+@Component
+public class CompactCartItemCodec implements CartItemCodec {
+    static final byte VERSION = 1;
+
+    private static final int HAS_NAME = 1;
+    private static final int HAS_PRICE = 1 << 1;
+    private static final int HAS_IMAGE = 1 << 2;
+    private static final int HAS_SKU = 1 << 3;
+
+    @Override
+    public String name() {
+        return "compact";
+    }
+
+    @Override
+    public byte[] encode(CartItem item) {
+        int flags = (item.getProductName() != null ? HAS_NAME : 0)
+                | (item.getProductPrice() != null ? HAS_PRICE : 0)
+                | (item.getImageUrl() != null ? HAS_IMAGE : 0)
+                | (item.getSku() != null ? HAS_SKU : 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION);
+        out.write(flags);
+        if (item.getProductName() != null) {
+            writeString(out, item.getProductName());
+        }
+        if (item.getProductPrice() != null) {
+            BigDecimal price = item.getProductPrice();
+            writeVarint(out, (price.scale() << 1) ^ (price.scale() >> 31));
+            writeBytes(out, price.unscaledValue().toByteArray());
+        }
+        if (item.getImageUrl() != null) {
+            writeString(out, item.getImageUrl());
+        }
+        if (item.getSku() != null) {
+            writeString(out, item.getSku());
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public boolean canDecode(byte[] data) {
+        return data.length > 1 && data[0] == VERSION;
+    }
+
+    @Override
+    public CartItem decode(byte[] data) {
+        if (!canDecode(data)) {
+            throw new IllegalArgumentException("Unsupported cart item format version " + (data.length > 0 ? data[0] : -1));
+        }
+        ByteBuffer in = ByteBuffer.wrap(data, 1, data.length - 1);
+        int flags = in.get();
+
+        CartItem item = new CartItem();
+        item.setProductName((flags & HAS_NAME) != 0 ? readString(in) : null);
+        if ((flags & HAS_PRICE) != 0) {
+            int zigzag = readVarint(in);
+            int scale = (zigzag >>> 1) ^ -(zigzag & 1);
+            item.setProductPrice(new BigDecimal(new BigInteger(readBytes(in)), scale));
+        } else {
+            item.setProductPrice(null);
+        }
+        item.setImageUrl((flags & HAS_IMAGE) != 0 ? readString(in) : null);
+        item.setSku((flags & HAS_SKU) != 0 ? readString(in) : null);
+        return item;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static String readString(ByteBuffer in) {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] bytes = new byte[readVarint(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in cached cart item");
+    }
+}
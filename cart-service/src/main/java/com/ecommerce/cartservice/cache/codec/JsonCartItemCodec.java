@@ -0,0 +1,46 @@
+package com.ecommerce.cartservice.cache.codec;
+
+import com.ecommerce.cartservice.entity.CartItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * The original cache format: the whole item as JSON. Still read so items cached before the
+ * compact format was introduced stay usable until they are rewritten.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonCartItemCodec implements CartItemCodec {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(CartItem item) {
+        try {
+            return objectMapper.writeValueAsBytes(item);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize cart item " + item.getProductId(), e);
+        }
+    }
+
+    @Override
+    public boolean canDecode(byte[] data) {
+        return data.length > 0 && data[0] == '{';
+    }
+
+    @Override
+    public CartItem decode(byte[] data) {
+        try {
+            return objectMapper.readValue(data, CartItem.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to deserialize cached cart item", e);
+        }
+    }
+}
@@ -4,12 +4,20 @@ import com.ecommerce.cartservice.dto.ProductDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
+import java.util.Map;
 
 @FeignClient(name = "product-service", url = "${product.service.url}")
 public interface ProductClient {
     
     @GetMapping("/api/products/{id}")
     ProductDto getProduct(@PathVariable("id") Long productId);
+
+    @PostMapping("/api/products/batch")
+    Map<Long, ProductDto> getProducts(@RequestBody Collection<Long> productIds);
     
     @GetMapping("/api/products/{id}/exists")
     boolean productExists(@PathVariable("id") Long productId);
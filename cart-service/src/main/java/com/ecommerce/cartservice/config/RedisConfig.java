@@ -4,14 +4,27 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
 
 @Configuration
 public class RedisConfig {
 
+    /**
+     * Template for cached carts. Strings map to bytes one-to-one (ISO-8859-1), so compact
+     * binary item payloads can live in the same hash as plain numeric fields and pass through
+     * Lua scripts unchanged.
+     */
     @Bean
-    public RedisTemplate<Long, Object> redisTemplate(LettuceConnectionFactory factory) {
-        RedisTemplate<Long, Object> template = new RedisTemplate<>();
+    public RedisTemplate<String, String> cartRedisTemplate(LettuceConnectionFactory factory) {
+        StringRedisSerializer bytes = new StringRedisSerializer(StandardCharsets.ISO_8859_1);
+        RedisTemplate<String, String> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
+        template.setKeySerializer(bytes);
+        template.setValueSerializer(bytes);
+        template.setHashKeySerializer(bytes);
+        template.setHashValueSerializer(bytes);
         return template;
     }
 }
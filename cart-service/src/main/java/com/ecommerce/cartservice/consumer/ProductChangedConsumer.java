@@ -0,0 +1,26 @@
+package com.ecommerce.cartservice.consumer;
+
+import com.ecommerce.cartservice.cache.ProductSnapshotCache;
+import com.ecommerce.cartservice.dto.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class ProductChangedConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangedConsumer.class);
+
+    private final ProductSnapshotCache productSnapshotCache;
+
+    @KafkaListener(topics = "${kafka.topics.product-changed:product-changed-topic}",
+            containerFactory = "productChangedKafkaListenerContainerFactory")
+    public void handle(ProductChangedEvent event) {
+        logger.debug("Received ProductChangedEvent: {}", event);
+        if (event.getProductId() != null) {
+            productSnapshotCache.apply(event);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.cartservice.controller;
 
 import com.ecommerce.cartservice.dto.AddToCartRequest;
+import com.ecommerce.cartservice.dto.CartBatchRequest;
 import com.ecommerce.cartservice.dto.CartDto;
 import com.ecommerce.cartservice.security.CurrentUserResolver;
 import com.ecommerce.cartservice.service.CartService;
@@ -9,6 +10,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.validation.Valid;
+
 @RestController
 @RequestMapping("/api/cart")
 public class CartController {
@@ -56,6 +59,15 @@ public class CartController {
         return ResponseEntity.ok(updatedCart);
     }
 
+    @PostMapping("/items/batch")
+    public ResponseEntity<CartDto> applyBatch(@Valid @RequestBody CartBatchRequest request) {
+        Long userId = getCurrentUserId();
+        logger.info("Applying {} cart operations - User ID: {}", request.getOperations().size(), userId);
+        CartDto updatedCart = cartService.applyBatch(userId, request);
+        logger.debug("Cart operations applied successfully. User ID: {}", userId);
+        return ResponseEntity.ok(updatedCart);
+    }
+
     @PutMapping("/items/{productId}")
     public ResponseEntity<CartDto> updateCartItem(@PathVariable Long productId,
                                                  @RequestParam int quantity) {
@@ -0,0 +1,17 @@
+package com.ecommerce.cartservice.dto;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+
+    // Applied in order, all or nothing
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 100, message = "At most 100 operations per request")
+    private List<@Valid CartItemOperation> operations;
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.cartservice.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+public class CartItemOperation {
+
+    public enum Type {
+        // Add quantity to the item, adding the product if it is not in the cart
+        ADD,
+        // Set the item's quantity; 0 or less removes it
+        UPDATE,
+        REMOVE
+    }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    // Required for ADD and UPDATE
+    private Integer quantity;
+}
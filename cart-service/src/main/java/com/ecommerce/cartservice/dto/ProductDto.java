@@ -3,6 +3,7 @@ package com.ecommerce.cartservice.dto;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 public class ProductDto {
@@ -13,4 +14,8 @@ public class ProductDto {
     private String sku;
     private String imageUrl;
     private boolean inStock;
+    // Not part of the product-service response; cleared by a deactivation event
+    private boolean active = true;
+    // Last change as recorded by product-service; orders the snapshot against change events
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,20 @@
+package com.ecommerce.cartservice.dto.event;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by product-service on the product-changed topic, keyed by product id. Only the
+ * fields that changed are set; changedAt (epoch millis) orders events for the same product.
+ */
+@Data
+public class ProductChangedEvent {
+    private Long productId;
+    private String name;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Integer availableQuantity;
+    private Boolean active;
+    private long changedAt;
+}
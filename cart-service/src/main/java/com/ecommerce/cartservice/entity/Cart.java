@@ -25,6 +25,9 @@ public class Cart implements Serializable {
     private int totalItems;
     private Boolean active = true;
 
+    // Version of the Redis hash this copy was written from; guards against out-of-order writes
+    private Long revision;
+
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
 
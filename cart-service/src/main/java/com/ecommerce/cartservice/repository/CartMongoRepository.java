@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.Optional;
 
-public interface CartMongoRepository extends MongoRepository<Cart, String> {
+public interface CartMongoRepository extends MongoRepository<Cart, String>, CartVersionedRepository {
     Optional<Cart> findByUserId(Long userId);
     void deleteByUserId(Long userId);
 }
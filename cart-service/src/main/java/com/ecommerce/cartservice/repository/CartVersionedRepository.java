@@ -0,0 +1,25 @@
+package com.ecommerce.cartservice.repository;
+
+import com.ecommerce.cartservice.entity.Cart;
+
+/**
+ * Mongo writes guarded by the cart's revision (the version of its Redis hash), so a write
+ * based on an older Redis state never replaces or deletes one based on a newer state,
+ * whatever order concurrent requests or flushes reach Mongo in.
+ */
+public interface CartVersionedRepository {
+
+    /**
+     * Save the cart unless Mongo already holds the same or a later revision of it.
+     *
+     * @return false if the save was skipped because Mongo is already newer
+     */
+    boolean saveIfNewer(Cart cart);
+
+    /**
+     * Delete the user's cart unless Mongo holds a later revision than {@code revision}.
+     *
+     * @return false if the stored cart was newer and kept
+     */
+    boolean deleteIfNotNewer(Long userId, long revision);
+}
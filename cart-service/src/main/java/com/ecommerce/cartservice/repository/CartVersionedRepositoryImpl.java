@@ -0,0 +1,40 @@
+package com.ecommerce.cartservice.repository;
+
+import com.ecommerce.cartservice.entity.Cart;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+@RequiredArgsConstructor
+public class CartVersionedRepositoryImpl implements CartVersionedRepository {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean saveIfNewer(Cart cart) {
+        long revision = cart.getRevision() != null ? cart.getRevision() : 0;
+        Query query = new Query(Criteria.where("_id").is(cart.getId())
+                .orOperator(Criteria.where("revision").lt(revision), Criteria.where("revision").exists(false)));
+        try {
+            mongoTemplate.findAndReplace(query, cart, FindAndReplaceOptions.options().upsert());
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The document exists with a later revision, so the filter missed and the upsert collided with its id
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteIfNotNewer(Long userId, long revision) {
+        Query newer = new Query(Criteria.where("userId").is(userId).and("revision").gt(revision));
+        if (mongoTemplate.exists(newer, Cart.class)) {
+            return false;
+        }
+        Query query = new Query(Criteria.where("userId").is(userId)
+                .orOperator(Criteria.where("revision").lte(revision), Criteria.where("revision").exists(false)));
+        mongoTemplate.remove(query, Cart.class);
+        return true;
+    }
+}
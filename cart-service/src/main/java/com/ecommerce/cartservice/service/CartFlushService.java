@@ -0,0 +1,6 @@
+package com.ecommerce.cartservice.service;
+
+public interface CartFlushService {
+    int flushDueCarts();
+    int recoverUnflushedCarts();
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.cartservice.service;
 
 import com.ecommerce.cartservice.dto.AddToCartRequest;
+import com.ecommerce.cartservice.dto.CartBatchRequest;
 import com.ecommerce.cartservice.dto.CartDto;
 
 public interface CartService {
@@ -8,6 +9,7 @@ public interface CartService {
     CartDto addToCart(Long userId, AddToCartRequest request);
     CartDto updateCartItem(Long userId, Long productId, int quantity);
     CartDto removeFromCart(Long userId, Long productId);
+    CartDto applyBatch(Long userId, CartBatchRequest request);
     void clearCart(Long userId);
     void deleteCart(Long userId);
     CartDto getCartByCartId(Long cartId);
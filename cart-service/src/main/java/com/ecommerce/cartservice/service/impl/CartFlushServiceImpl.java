@@ -0,0 +1,129 @@
+package com.ecommerce.cartservice.service.impl;
+
+import com.ecommerce.cartservice.cache.CartCache;
+import com.ecommerce.cartservice.repository.CartMongoRepository;
+import com.ecommerce.cartservice.service.CartFlushService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Writes dirty carts from Redis to Mongo in the background (write-behind mode). A cart is
+ * written at most once per flush interval however often it is edited, and an edit reaches
+ * Mongo no later than roughly one interval after it was made.
+ */
+@Service
+public class CartFlushServiceImpl implements CartFlushService {
+    private static final Logger logger = LoggerFactory.getLogger(CartFlushServiceImpl.class);
+
+    private final CartCache cartCache;
+    private final CartMongoRepository cartMongoRepository;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final long leaseMs;
+    private final int batchSize;
+
+    public CartFlushServiceImpl(CartCache cartCache,
+                                CartMongoRepository cartMongoRepository,
+                                @Value("${cart.write-behind.enabled:true}") boolean enabled,
+                                @Value("${cart.write-behind.flush-interval-ms:5000}") long flushIntervalMs,
+                                @Value("${cart.write-behind.lease-ms:60000}") long leaseMs,
+                                @Value("${cart.write-behind.batch-size:200}") int batchSize) {
+        this.cartCache = cartCache;
+        this.cartMongoRepository = cartMongoRepository;
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        // The lease must outlast the recovery window below, or recovery could steal live claims
+        this.leaseMs = Math.max(leaseMs, 2 * flushIntervalMs);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${cart.write-behind.flush-interval-ms:5000}",
+            fixedDelayString = "${cart.write-behind.flush-interval-ms:5000}")
+    public int flushDueCarts() {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            int flushed = flush(System.currentTimeMillis());
+            if (flushed > 0) {
+                logger.debug("Flushed {} carts to Mongo, {} still dirty", flushed, cartCache.dirtyCount());
+            }
+            return flushed;
+        } catch (Exception e) {
+            logger.error("Cart flush pass failed, dirty carts stay in Redis: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Flush every cart left dirty by a previous run, without waiting for its due time. Carts
+     * currently leased by another live replica are left to that replica.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int recoverUnflushedCarts() {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            int flushed = flush(System.currentTimeMillis() + flushIntervalMs);
+            if (flushed > 0) {
+                logger.info("Recovered {} unflushed carts from Redis", flushed);
+            }
+            return flushed;
+        } catch (Exception e) {
+            logger.error("Cart recovery failed, the scheduled flush will retry: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private int flush(long cutoff) {
+        int flushed = 0;
+        while (true) {
+            List<Long> userIds = cartCache.claimDue(cutoff, batchSize, System.currentTimeMillis() + leaseMs);
+            int batchFlushed = 0;
+            for (Long userId : userIds) {
+                if (flushOne(userId)) {
+                    batchFlushed++;
+                }
+            }
+            flushed += batchFlushed;
+            // Stop when Mongo is failing rather than spinning on the same carts
+            if (userIds.size() < batchSize || batchFlushed == 0) {
+                return flushed;
+            }
+        }
+    }
+
+    private boolean flushOne(Long userId) {
+        try {
+            CartCache.Pending pending = cartCache.pending(userId);
+            if (pending.isDeleted()) {
+                cartMongoRepository.deleteIfNotNewer(userId, pending.getCart().getRevision());
+            } else if (pending.getCart() != null) {
+                cartMongoRepository.saveIfNewer(pending.getCart());
+            }
+            if (!cartCache.complete(pending)) {
+                logger.debug("Cart for user {} changed during flush, will flush again", userId);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to flush cart for user {}, will retry: {}", userId, e.getMessage());
+            try {
+                cartCache.retryLater(userId);
+            } catch (Exception retryError) {
+                // The lease expires on its own and the cart is claimed again
+                logger.warn("Failed to reschedule cart flush for user {}: {}", userId, retryError.getMessage());
+            }
+            return false;
+        }
+    }
+}
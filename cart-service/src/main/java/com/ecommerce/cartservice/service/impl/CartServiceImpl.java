@@ -1,27 +1,36 @@
 package com.ecommerce.cartservice.service.impl;
 
+import com.ecommerce.cartservice.cache.CartCache;
+import com.ecommerce.cartservice.cache.ProductSnapshotCache;
 import com.ecommerce.cartservice.client.ProductClient;
 import com.ecommerce.cartservice.dto.AddToCartRequest;
+import com.ecommerce.cartservice.dto.CartBatchRequest;
 import com.ecommerce.cartservice.dto.CartDto;
 import com.ecommerce.cartservice.dto.CartItemDto;
+import com.ecommerce.cartservice.dto.CartItemOperation;
 import com.ecommerce.cartservice.dto.ProductDto;
 import com.ecommerce.cartservice.entity.Cart;
 import com.ecommerce.cartservice.entity.CartItem;
 import com.ecommerce.cartservice.exception.CartNotFoundException;
+import com.ecommerce.cartservice.exception.CartServiceException;
 import com.ecommerce.cartservice.repository.CartMongoRepository;
-import com.ecommerce.cartservice.repository.CartRedisRepository;
 import com.ecommerce.cartservice.service.CartService;
-import feign.FeignException;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,8 +39,13 @@ public class CartServiceImpl implements CartService {
     private static final Logger logger = LoggerFactory.getLogger(CartServiceImpl.class);
 
     private final CartMongoRepository cartMongoRepository;
-    private final CartRedisRepository cartRedisRepository;
+    private final CartCache cartCache;
     private final ProductClient productClient;
+    private final ProductSnapshotCache productSnapshotCache;
+
+    // Redis holds the authoritative cart and CartFlushService writes it to Mongo later
+    @Value("${cart.write-behind.enabled:true}")
+    private boolean writeBehind;
 
     @Override
     public CartDto getCart(Long userId) {
@@ -46,29 +60,18 @@ public class CartServiceImpl implements CartService {
     public CartDto addToCart(Long userId, AddToCartRequest request) {
         logger.info("Adding to cart - User ID: {}, Request: {}", 
                   userId, request);
-        
-        Cart cart = getCartInternal(userId);
-        logger.debug("Retrieved cart with ID: {} for user ID: {}", 
-                   cart.getId(), userId);
 
         ProductDto product = fetchProduct(request.getProductId());
         logger.debug("Fetched product details - ID: {}, Name: {}", 
                    product.getId(), product.getName());
 
-        CartItem item = cart.getItems().stream()
-                .filter(i -> i.getProductId().equals(product.getId()))
-                .findFirst()
-                .orElseGet(() -> createCartItem(cart, product));
-
-        logger.debug("Updating cart item - Product ID: {}, Current Qty: {}, Adding: {}", 
-                   product.getId(), item.getQuantity(), request.getQuantity());
-        
-        item.incrementQuantity(request.getQuantity());
-        cart.updateTotals();
-        save(cart);
+        // Product details are only recorded if the item is new to the cart
+        Cart cart = cartCache.addItem(userId, createCartItem(product), request.getQuantity(),
+                () -> loadCart(userId));
+        persist(cart);
 
-        logger.info("Successfully added to cart - User ID: {}, Product ID: {}, New Qty: {}", 
-                  userId, product.getId(), item.getQuantity());
+        logger.info("Successfully added to cart - User ID: {}, Product ID: {}, Cart items: {}", 
+                  userId, product.getId(), cart.getTotalItems());
         
         return toDto(cart);
     }
@@ -77,27 +80,19 @@ public class CartServiceImpl implements CartService {
     public CartDto updateCartItem(Long userId, Long productId, int quantity) {
         logger.info("Updating cart item - User ID: {}, Product ID: {}, New Qty: {}", 
                   userId, productId, quantity);
-        
-        Cart cart = getCartInternal(userId);
-        
-        CartItem item = cart.getItems().stream()
-                .filter(i -> i.getProductId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> {
-                    logger.warn("Item not found in cart - User ID: {}, Product ID: {}", 
-                              userId, productId);
-                    return new CartNotFoundException("Item not found in cart");
-                });
 
         if (quantity <= 0) {
             logger.debug("Quantity is 0 or negative, removing item from cart");
             return removeFromCart(userId, productId);
         }
 
-        logger.debug("Updating quantity from {} to {}", item.getQuantity(), quantity);
-        item.updateQuantity(quantity);
-        cart.updateTotals();
-        save(cart);
+        Cart cart = cartCache.setQuantity(userId, productId, quantity, () -> loadCart(userId))
+                .orElseThrow(() -> {
+                    logger.warn("Item not found in cart - User ID: {}, Product ID: {}", 
+                              userId, productId);
+                    return new CartNotFoundException("Item not found in cart");
+                });
+        persist(cart);
 
         logger.info("Successfully updated cart item - User ID: {}, Product ID: {}, Qty: {}", 
                   userId, productId, quantity);
@@ -109,32 +104,84 @@ public class CartServiceImpl implements CartService {
     public CartDto removeFromCart(Long userId, Long productId) {
         logger.info("Removing item from cart - User ID: {}, Product ID: {}", 
                   userId, productId);
-        
-        Cart cart = getCartInternal(userId);
-        boolean removed = cart.getItems().removeIf(i -> i.getProductId().equals(productId));
-        
-        if (!removed) {
-            logger.warn("Item not found in cart for removal - User ID: {}, Product ID: {}", 
-                      userId, productId);
-            throw new CartNotFoundException("Item not found in cart");
-        }
 
-        cart.updateTotals();
-        
+        Cart cart = cartCache.removeItem(userId, productId, () -> loadCart(userId))
+                .orElseThrow(() -> {
+                    logger.warn("Item not found in cart for removal - User ID: {}, Product ID: {}", 
+                              userId, productId);
+                    return new CartNotFoundException("Item not found in cart");
+                });
+
         if (cart.getItems().isEmpty()) {
+            // The cache already holds a tombstone for the emptied cart
             logger.debug("Cart is empty after removal, deleting cart for user ID: {}", 
                        userId);
-            deleteCart(userId);
+            persistDeleted(cart);
             return emptyCartDto(userId);
         }
 
-        save(cart);
+        persist(cart);
         logger.info("Successfully removed item from cart - User ID: {}, Product ID: {}", 
                   userId, productId);
         
         return toDto(cart);
     }
 
+    @Override
+    public CartDto applyBatch(Long userId, CartBatchRequest request) {
+        List<CartItemOperation> operations = request.getOperations();
+        logger.info("Applying cart operations - User ID: {}, Operations: {}", userId, operations.size());
+
+        for (CartItemOperation operation : operations) {
+            if (operation.getType() != CartItemOperation.Type.REMOVE && operation.getQuantity() == null) {
+                throw new CartServiceException("Quantity is required for " + operation.getType()
+                        + " of product " + operation.getProductId());
+            }
+            if (operation.getType() == CartItemOperation.Type.ADD && operation.getQuantity() < 1) {
+                throw new CartServiceException("Quantity must be at least 1 for product " + operation.getProductId());
+            }
+        }
+
+        // One lookup for every product being added, before anything is changed
+        Set<Long> addedIds = operations.stream()
+                .filter(operation -> operation.getType() == CartItemOperation.Type.ADD)
+                .map(CartItemOperation::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, ProductDto> products = addedIds.isEmpty() ? Map.of() : fetchProducts(addedIds);
+
+        List<CartCache.ItemChange> changes = new ArrayList<>(operations.size());
+        for (CartItemOperation operation : operations) {
+            switch (operation.getType()) {
+                case ADD:
+                    ProductDto product = products.get(operation.getProductId());
+                    if (product == null || !product.isActive()) {
+                        logger.error("Product not found - ID: {}", operation.getProductId());
+                        throw new CartNotFoundException("Product not found: " + operation.getProductId());
+                    }
+                    changes.add(CartCache.ItemChange.add(createCartItem(product), operation.getQuantity()));
+                    break;
+                case UPDATE:
+                    changes.add(CartCache.ItemChange.setQuantity(operation.getProductId(), operation.getQuantity()));
+                    break;
+                default:
+                    changes.add(CartCache.ItemChange.remove(operation.getProductId()));
+            }
+        }
+
+        Cart cart = cartCache.applyChanges(userId, changes, () -> loadCart(userId));
+        if (cart.getItems().isEmpty()) {
+            logger.debug("Cart is empty after operations, deleting cart for user ID: {}", userId);
+            persistDeleted(cart);
+            return emptyCartDto(userId);
+        }
+
+        persist(cart);
+        logger.info("Successfully applied cart operations - User ID: {}, Cart items: {}",
+                  userId, cart.getTotalItems());
+
+        return toDto(cart);
+    }
+
     @Override
     public void clearCart(Long userId) {
         logger.info("Clearing cart for user ID: {}", userId);
@@ -151,6 +198,10 @@ public class CartServiceImpl implements CartService {
                     logger.error("Cart not found with ID: {}", cartId);
                     return new CartNotFoundException("Cart not found");
                 });
+        if (writeBehind) {
+            // Mongo may lag behind the Redis copy by up to one flush interval
+            cart = cartCache.get(cart.getUserId()).orElse(cart);
+        }
         logger.debug("Successfully fetched cart by ID: {}", cartId);
         return toDto(cart);
     }
@@ -159,23 +210,18 @@ public class CartServiceImpl implements CartService {
 
     private Cart getCartInternal(Long userId) {
         logger.debug("Getting cart from cache for user ID: {}", userId);
-        Optional<Cart> redisCart = cartRedisRepository.findById(userId);
-        if (redisCart.isPresent()) {
-            logger.debug("Cache hit for user ID: {}", userId);
-            return redisCart.get();
-        }
+        return cartCache.get(userId, () -> loadCart(userId));
+    }
 
+    // Cache miss: the cart is copied from Mongo into Redis before it is read or edited
+    private Cart loadCart(Long userId) {
         logger.debug("Cache miss for user ID: {}, checking database", userId);
-        Cart mongoCart = cartMongoRepository.findByUserId(userId)
+        return cartMongoRepository.findByUserId(userId)
                 .orElseGet(() -> {
                     logger.debug("No cart found in database for user ID: {}, creating new cart", 
                               userId);
                     return createCart(userId);
                 });
-
-        logger.debug("Updating cache for user ID: {}", userId);
-        cartRedisRepository.save(mongoCart);
-        return mongoCart;
     }
 
     private Cart createCart(Long userId) {
@@ -183,38 +229,72 @@ public class CartServiceImpl implements CartService {
         cart.setUserId(userId);
         cart.setCreatedAt(LocalDateTime.now());
         cart.setUpdatedAt(LocalDateTime.now());
+        if (writeBehind) {
+            // Persisted by the first flush after an item is added
+            cart.setId(new ObjectId().toHexString());
+            return cart;
+        }
         return cartMongoRepository.save(cart);
     }
 
-    private void save(Cart cart) {
-        cartMongoRepository.save(cart);
-        cartRedisRepository.save(cart);
+    // Write-through mode only: the edit has been applied in Redis and is copied to Mongo now
+    private void persist(Cart cart) {
+        if (writeBehind) {
+            return;
+        }
+        try {
+            // Concurrent requests can reach Mongo in either order; only the newest revision sticks
+            if (!cartMongoRepository.saveIfNewer(cart)) {
+                logger.debug("Mongo already holds a newer cart for user ID: {}, skipping revision {}",
+                           cart.getUserId(), cart.getRevision());
+            }
+        } catch (RuntimeException e) {
+            // Drop the cached copy so the next read reloads what Mongo actually holds
+            cartCache.evict(cart.getUserId());
+            throw e;
+        }
+    }
+
+    // Write-through mode only: the cache already holds a tombstone, which stays until its TTL
+    private void persistDeleted(Cart tombstone) {
+        if (!writeBehind) {
+            cartMongoRepository.deleteIfNotNewer(tombstone.getUserId(), tombstone.getRevision());
+        }
     }
 
     @Override
     public void deleteCart(Long userId) {
-        cartMongoRepository.deleteByUserId(userId);
-        cartRedisRepository.deleteById(userId);
+        long revision = cartCache.markDeleted(userId);
+        if (!writeBehind) {
+            cartMongoRepository.deleteIfNotNewer(userId, revision);
+        }
     }
 
 
     private ProductDto fetchProduct(Long productId) {
         logger.debug("Fetching product details for ID: {}", productId);
-        try {
-            ProductDto product = productClient.getProduct(productId);
-            logger.debug("Successfully fetched product - ID: {}, Name: {}", 
-                      productId, product.getName());
-            return product;
-        } catch (FeignException.NotFound e) {
-            logger.error("Product not found - ID: {}", productId, e);
+        ProductDto product = fetchProducts(List.of(productId)).get(productId);
+        if (product == null || !product.isActive()) {
+            logger.error("Product not found - ID: {}", productId);
             throw new CartNotFoundException("Product not found: " + productId);
+        }
+        logger.debug("Successfully fetched product - ID: {}, Name: {}",
+                  productId, product.getName());
+        return product;
+    }
+
+    // Answered from the local product snapshot; only products it does not hold are fetched remotely
+    private Map<Long, ProductDto> fetchProducts(Collection<Long> productIds) {
+        logger.debug("Fetching product details for IDs: {}", productIds);
+        try {
+            return productSnapshotCache.getAll(productIds, productClient::getProducts);
         } catch (Exception e) {
-            logger.error("Error fetching product - ID: {}", productId, e);
-            throw new RuntimeException("Failed to fetch product: " + productId, e);
+            logger.error("Error fetching products - IDs: {}", productIds, e);
+            throw new RuntimeException("Failed to fetch products: " + productIds, e);
         }
     }
 
-    private CartItem createCartItem(Cart cart, ProductDto product) {
+    private CartItem createCartItem(ProductDto product) {
         CartItem item = new CartItem();
         item.setProductId(product.getId());
         item.setProductName(product.getName());
@@ -224,8 +304,6 @@ public class CartServiceImpl implements CartService {
         item.setImageUrl(product.getImageUrl());
         item.setQuantity(0);
         item.setTotalPrice(BigDecimal.ZERO);
-
-        cart.getItems().add(item);
         return item;
     }
 
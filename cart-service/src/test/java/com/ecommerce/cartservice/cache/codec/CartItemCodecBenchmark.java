@@ -0,0 +1,61 @@
+package com.ecommerce.cartservice.cache.codec;
+
+import com.ecommerce.cartservice.entity.CartItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of each cart item cache format for a typical item. The size
+ * difference is asserted in {@link CompactCartItemCodecTest}. Run with:
+ *
+ * <pre>
+ * mvn -pl cart-service test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main CartItemCodecBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartItemCodecBenchmark {
+
+    @Param({"json", "compact"})
+    private String format;
+
+    private CartItemCodec codec;
+    private CartItem item;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        codec = "compact".equals(format) ? new CompactCartItemCodec() : new JsonCartItemCodec(new ObjectMapper());
+        item = new CartItem(1234L, "Wireless Noise Cancelling Headphones", new BigDecimal("249.99"), 2,
+                "https://cdn.example.com/images/products/1234/main.jpg", "WH-1000XM5-BLK", new BigDecimal("499.98"));
+        encoded = codec.encode(item);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(item);
+    }
+
+    @Benchmark
+    public CartItem decode() {
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecommerce.cartservice.cache.codec;
+
+import com.ecommerce.cartservice.entity.CartItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactCartItemCodecTest {
+
+    private final CompactCartItemCodec compact = new CompactCartItemCodec();
+    private final JsonCartItemCodec json = new JsonCartItemCodec(new ObjectMapper());
+
+    @Test
+    void roundTripsAllDetails() {
+        CartItem decoded = roundTrip(item("Wireless Headphones", new BigDecimal("249.99"),
+                "https://cdn.example.com/images/1234/main.jpg", "WH-1000XM5-BLK"));
+
+        assertThat(decoded.getProductName()).isEqualTo("Wireless Headphones");
+        assertThat(decoded.getProductPrice()).isEqualTo(new BigDecimal("249.99"));
+        assertThat(decoded.getImageUrl()).isEqualTo("https://cdn.example.com/images/1234/main.jpg");
+        assertThat(decoded.getSku()).isEqualTo("WH-1000XM5-BLK");
+    }
+
+    @Test
+    void roundTripsMissingDetailsAsNull() {
+        CartItem decoded = roundTrip(item(null, null, null, null));
+
+        assertThat(decoded.getProductName()).isNull();
+        assertThat(decoded.getProductPrice()).isNull();
+        assertThat(decoded.getImageUrl()).isNull();
+        assertThat(decoded.getSku()).isNull();
+    }
+
+    @Test
+    void roundTripsEachDetailOnItsOwn() {
+        assertThat(roundTrip(item("Mug", null, null, null)).getProductName()).isEqualTo("Mug");
+        assertThat(roundTrip(item(null, new BigDecimal("3.50"), null, null)).getProductPrice())
+                .isEqualTo(new BigDecimal("3.50"));
+        assertThat(roundTrip(item(null, null, "https://img/1.png", null)).getImageUrl()).isEqualTo("https://img/1.png");
+        assertThat(roundTrip(item(null, null, null, "MUG-1")).getSku()).isEqualTo("MUG-1");
+    }
+
+    // Scale and unscaled value must both survive: 1E+3 and 1000 are different BigDecimals
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "0.00", "-0.01", "19.99", "-249.99", "1E+3", "5E-7", "-4E+12",
+            "123456789012345678901234567890.123456789", "1E+2147483647", "1E-2147483647"})
+    void roundTripsPricesWithAnyScale(String price) {
+        BigDecimal expected = new BigDecimal(price);
+
+        BigDecimal decoded = roundTrip(item(null, expected, null, null)).getProductPrice();
+
+        assertThat(decoded).isEqualTo(expected);
+        assertThat(decoded.scale()).isEqualTo(expected.scale());
+    }
+
+    @Test
+    void roundTripsNonAsciiText() {
+        String name = "Café crème — 東京 ☕ 🍵";
+        CartItem decoded = roundTrip(item(name, BigDecimal.ONE, "https://img.example.com/thé.png", "ÜBER-Ω"));
+
+        assertThat(decoded.getProductName()).isEqualTo(name);
+        assertThat(decoded.getImageUrl()).isEqualTo("https://img.example.com/thé.png");
+        assertThat(decoded.getSku()).isEqualTo("ÜBER-Ω");
+    }
+
+    // Lengths of 128 bytes and more take a multi-byte varint
+    @Test
+    void roundTripsLongText() {
+        String name = "x".repeat(300);
+        String imageUrl = "https://img.example.com/" + "é".repeat(20_000);
+
+        CartItem decoded = roundTrip(item(name, BigDecimal.TEN, imageUrl, "SKU"));
+
+        assertThat(decoded.getProductName()).isEqualTo(name);
+        assertThat(decoded.getImageUrl()).isEqualTo(imageUrl);
+        assertThat(decoded.getSku()).isEqualTo("SKU");
+    }
+
+    @Test
+    void leavesIdQuantityAndTotalToTheirOwnFields() {
+        CartItem item = item("Mug", new BigDecimal("3.50"), null, "MUG-1");
+        item.setProductId(7L);
+        item.updateQuantity(4);
+
+        CartItem decoded = roundTrip(item);
+
+        assertThat(decoded.getProductId()).isNull();
+        assertThat(decoded.getQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void encodesTypicalItemSmallerThanJson() {
+        CartItem item = new CartItem(1234L, "Wireless Noise Cancelling Headphones", new BigDecimal("249.99"), 2,
+                "https://cdn.example.com/images/products/1234/main.jpg", "WH-1000XM5-BLK", new BigDecimal("499.98"));
+
+        assertThat(compact.encode(item).length).isLessThan(json.encode(item).length);
+    }
+
+    @Test
+    void decodesLegacyJsonOnlyThroughTheJsonCodec() {
+        byte[] legacy = ("{\"productId\":7,\"productName\":\"Café\",\"productPrice\":3.50,\"quantity\":2," +
+                "\"imageUrl\":null,\"sku\":\"MUG-1\",\"totalPrice\":7.00}").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(compact.canDecode(legacy)).isFalse();
+        assertThat(json.canDecode(legacy)).isTrue();
+        CartItem decoded = json.decode(legacy);
+        assertThat(decoded.getProductName()).isEqualTo("Café");
+        assertThat(decoded.getProductPrice()).isEqualByComparingTo("3.50");
+        assertThat(decoded.getImageUrl()).isNull();
+        assertThat(decoded.getSku()).isEqualTo("MUG-1");
+    }
+
+    @Test
+    void compactDataIsNotMistakenForJson() {
+        byte[] data = compact.encode(item("{not json}", BigDecimal.ONE, null, null));
+
+        assertThat(compact.canDecode(data)).isTrue();
+        assertThat(json.canDecode(data)).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownVersions() {
+        byte[] data = compact.encode(item("Mug", BigDecimal.ONE, null, null));
+        data[0] = CompactCartItemCodec.VERSION + 1;
+
+        assertThat(compact.canDecode(data)).isFalse();
+        assertThat(compact.canDecode(new byte[0])).isFalse();
+        assertThatThrownBy(() -> compact.decode(data)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Encoded details are stored in Redis hash fields as ISO-8859-1 strings
+    private CartItem roundTrip(CartItem item) {
+        String stored = new String(compact.encode(item), StandardCharsets.ISO_8859_1);
+        byte[] read = stored.getBytes(StandardCharsets.ISO_8859_1);
+        assertThat(compact.canDecode(read)).isTrue();
+        return compact.decode(read);
+    }
+
+    private static CartItem item(String name, BigDecimal price, String imageUrl, String sku) {
+        CartItem item = new CartItem();
+        item.setProductName(name);
+        item.setProductPrice(price);
+        item.setImageUrl(imageUrl);
+        item.setSku(sku);
+        return item;
+    }
+}
@@ -2,12 +2,15 @@ package com.ecommerce.orderservice.client;
 
 import com.ecommerce.orderservice.dto.ProductDto;
 import com.ecommerce.orderservice.dto.request.StockReduceRequest;
+import com.ecommerce.orderservice.dto.request.StockReservationRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 @FeignClient(name = "product-service", url = "${product.service.url}")
@@ -16,6 +19,20 @@ public interface ProductClient {
     @GetMapping("/api/products/{id}")
     ProductDto getProduct(@PathVariable("id") Long productId);
 
+    @PostMapping("/api/products/batch")
+    Map<Long, ProductDto> getProducts(@RequestBody Collection<Long> productIds);
+
     @PostMapping("/api/products/decrement-stock/batch")
     void reduceStockBatch(@RequestBody Set<StockReduceRequest> requests);
+
+    // 409 when any line cannot be held
+    @PostMapping("/api/products/reservations")
+    void reserveStock(@RequestBody StockReservationRequest request);
+
+    // 409 when the holds already expired or were released
+    @PostMapping("/api/products/reservations/{orderId}/commit")
+    void commitReservation(@PathVariable("orderId") Long orderId);
+
+    @PostMapping("/api/products/reservations/{orderId}/release")
+    void releaseReservation(@PathVariable("orderId") Long orderId);
 }
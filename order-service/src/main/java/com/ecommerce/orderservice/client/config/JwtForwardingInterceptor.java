@@ -1,7 +1,9 @@
 package com.ecommerce.orderservice.client.config;
 
+import com.ecommerce.orderservice.security.ServiceTokenProvider;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -9,10 +11,20 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class JwtForwardingInterceptor implements RequestInterceptor {
+    // Service-only endpoints; also called from schedulers and Kafka listeners, where there is no user
+    private static final String RESERVATIONS_PATH = "/api/products/reservations";
+
+    private final ServiceTokenProvider serviceTokenProvider;
 
     @Override
     public void apply(RequestTemplate template) {
+        if (template.url().startsWith(RESERVATIONS_PATH)) {
+            template.header(HttpHeaders.AUTHORIZATION, "Bearer " + serviceTokenProvider.getToken());
+            return;
+        }
+
         Authentication authentication =
                 SecurityContextHolder.getContext().getAuthentication();
 
@@ -0,0 +1,15 @@
+package com.ecommerce.orderservice.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationRequest {
+    private Long orderId;
+    private List<StockReduceRequest> items;
+}
@@ -70,7 +70,9 @@ public class Order {
     private LocalDateTime lockedAt;
 
     public enum OrderStatus {
-        PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED, RETURNED, REFUNDED
+        PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED, RETURNED, REFUNDED,
+        // Payment captured but the stock was gone by then; waits for a refund or backorder
+        STOCK_UNAVAILABLE
     }
 
     public enum PaymentStatus {
@@ -0,0 +1,44 @@
+package com.ecommerce.orderservice.mapper;
+
+import com.ecommerce.orderservice.dto.AddressDto;
+import com.ecommerce.orderservice.dto.OrderItemDto;
+import com.ecommerce.orderservice.dto.response.OrderResponse;
+import com.ecommerce.orderservice.entity.BillingAddress;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.ShippingAddress;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Compile-time generated mapping from orders to the API response. Display-only fields
+ * (item count, cancel/return flags, formatted values) are filled in by the service.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface OrderMapper {
+
+    @Mapping(target = "formattedTotal", ignore = true)
+    @Mapping(target = "formattedDate", ignore = true)
+    @Mapping(target = "itemCount", ignore = true)
+    @Mapping(target = "canBeCancelled", ignore = true)
+    @Mapping(target = "canBeReturned", ignore = true)
+    OrderResponse toResponse(Order order);
+
+    @Mapping(target = "imageUrl", ignore = true)
+    OrderItemDto toItemDto(OrderItem item);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "default", ignore = true)
+    @Mapping(target = "addressType", ignore = true)
+    @Mapping(target = "fullName", ignore = true)
+    @Mapping(target = "fullAddress", ignore = true)
+    AddressDto toAddressDto(ShippingAddress address);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "default", ignore = true)
+    @Mapping(target = "addressType", ignore = true)
+    @Mapping(target = "fullName", ignore = true)
+    @Mapping(target = "fullAddress", ignore = true)
+    AddressDto toAddressDto(BillingAddress address);
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.orderservice.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Short-lived token identifying this service rather than a user, for product-service
+ * endpoints that end users must not call (stock reservations). Signed with the shared JWT
+ * secret and reused until shortly before it expires.
+ */
+@Component
+public class ServiceTokenProvider {
+    public static final String SERVICE_ROLE = "ROLE_SERVICE";
+
+    private final SecretKey key;
+    private final String serviceName;
+    private final long ttlMs;
+
+    private volatile String token;
+    private volatile long expiresAt;
+
+    public ServiceTokenProvider(
+            @Value("${spring.security.oauth2.resourceserver.jwt.secret-key}") String secretKey,
+            @Value("${spring.application.name}") String serviceName,
+            @Value("${service.auth.token-ttl-seconds:300}") long ttlSeconds) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.serviceName = serviceName;
+        this.ttlMs = ttlSeconds * 1000;
+    }
+
+    public String getToken() {
+        long now = System.currentTimeMillis();
+        // Renew at half-life so a token never expires while a request is in flight
+        if (token == null || now > expiresAt - ttlMs / 2) {
+            synchronized (this) {
+                if (token == null || now > expiresAt - ttlMs / 2) {
+                    long expiry = now + ttlMs;
+                    token = Jwts.builder()
+                            .setSubject(serviceName)
+                            .claim("roles", List.of(SERVICE_ROLE))
+                            .setIssuedAt(new Date(now))
+                            .setExpiration(new Date(expiry))
+                            .signWith(key, SignatureAlgorithm.HS512)
+                            .compact();
+                    expiresAt = expiry;
+                }
+            }
+        }
+        return token;
+    }
+}
@@ -7,9 +7,11 @@ import com.ecommerce.orderservice.dto.request.OrderPaymentInitRequest;
 import com.ecommerce.orderservice.dto.request.OrderRequest;
 import com.ecommerce.orderservice.dto.request.PaymentStatusUpdateRequest;
 import com.ecommerce.orderservice.dto.request.StockReduceRequest;
+import com.ecommerce.orderservice.dto.request.StockReservationRequest;
 import com.ecommerce.orderservice.dto.response.OrderResponse;
 import com.ecommerce.orderservice.entity.*;
 import com.ecommerce.orderservice.exception.*;
+import com.ecommerce.orderservice.mapper.OrderMapper;
 import com.ecommerce.orderservice.repository.OrderPaymentRepository;
 import com.ecommerce.orderservice.repository.OrderRepository;
 import com.ecommerce.orderservice.service.EventPublisherService;
@@ -17,7 +19,6 @@ import com.ecommerce.orderservice.service.OrderService;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -25,6 +26,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -42,7 +45,7 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final OrderPaymentRepository orderPaymentRepository;
-    private final ModelMapper modelMapper;
+    private final OrderMapper orderMapper;
     private final ProductClient productClient;
     private final CartClient cartClient;
     private final EventPublisherService eventPublisherService;
@@ -71,6 +74,11 @@ public class OrderServiceImpl implements OrderService {
             Order savedOrder = orderRepository.save(order);
             log.info("Created order {} for user {}", savedOrder.getOrderNumber(), userId);
 
+            // Hold stock until payment settles; the product service expires holds we never resolve.
+            // The holds are made outside this transaction, so a rollback has to give them back
+            Long orderId = savedOrder.getId();
+            afterRollback(() -> releaseStock(orderId));
+            reserveStock(savedOrder);
             lockOrder(savedOrder.getId());
 
             // Publish notification event for order creation
@@ -95,6 +103,8 @@ public class OrderServiceImpl implements OrderService {
             return convertToDto(savedOrder);
         } catch (FeignException.NotFound e) {
             throw new ResourceNotFoundException("Error creating order: " + e.getMessage());
+        } catch (InsufficientStockException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating order: {}", e.getMessage(), e);
             throw new OrderProcessingException("Failed to create order: " + e.getMessage());
@@ -187,6 +197,7 @@ public class OrderServiceImpl implements OrderService {
         
         order.setStatus(Order.OrderStatus.CANCELLED);
         orderRepository.save(order);
+        releaseStock(order.getId());
 
         // Publish notification event for email verification
         try {
@@ -223,6 +234,7 @@ public class OrderServiceImpl implements OrderService {
                 log.info("Cancelled expired order: {}", order.getOrderNumber());
             });
             orderRepository.saveAll(expiredOrders);
+            expiredOrders.forEach(order -> releaseStock(order.getId()));
         }
     }
 
@@ -232,26 +244,30 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private void processOrderItems(Order order, List<OrderRequest.OrderItemRequest> items) {
+        // One round trip for every line item instead of one per product
+        Set<Long> productIds = items.stream()
+                .map(OrderRequest.OrderItemRequest::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, ProductDto> products = productClient.getProducts(productIds);
+
         items.forEach(item -> {
-            try {
-                ProductDto product = productClient.getProduct(item.getProductId());
-
-                // Create order item
-                OrderItem orderItem = new OrderItem();
-                orderItem.setProductId(product.getId());
-                orderItem.setProductName(product.getName());
-                orderItem.setProductSku(product.getSku());
-                orderItem.setQuantity(item.getQuantity());
-                orderItem.setUnitPrice(item.getUnitPrice() != null ? item.getUnitPrice() : product.getPrice());
-                orderItem.setDiscountAmount(item.getDiscountAmount());
-                orderItem.setTaxAmount(item.getTaxAmount());
-                orderItem.calculateTotal();
-                
-                order.addItem(orderItem);
-                
-            } catch (FeignException.NotFound e) {
+            ProductDto product = products.get(item.getProductId());
+            if (product == null) {
                 throw new ResourceNotFoundException("Product not found with id: " + item.getProductId());
             }
+
+            // Create order item
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProductId(product.getId());
+            orderItem.setProductName(product.getName());
+            orderItem.setProductSku(product.getSku());
+            orderItem.setQuantity(item.getQuantity());
+            orderItem.setUnitPrice(item.getUnitPrice() != null ? item.getUnitPrice() : product.getPrice());
+            orderItem.setDiscountAmount(item.getDiscountAmount());
+            orderItem.setTaxAmount(item.getTaxAmount());
+            orderItem.calculateTotal();
+
+            order.addItem(orderItem);
         });
     }
 
@@ -292,7 +308,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private OrderResponse convertToDto(Order order) {
-        OrderResponse dto = modelMapper.map(order, OrderResponse.class);
+        OrderResponse dto = orderMapper.toResponse(order);
         dto.setItemCount(order.getItems().size());
         dto.setCanBeCancelled(order.getStatus() == Order.OrderStatus.PENDING);
         dto.setCanBeReturned(order.getStatus() == Order.OrderStatus.DELIVERED && 
@@ -453,6 +469,69 @@ public class OrderServiceImpl implements OrderService {
                 .build());
     }
 
+    private void reserveStock(Order order) {
+        List<StockReduceRequest> items = order.getItems().stream()
+                .map(item -> new StockReduceRequest(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+        try {
+            productClient.reserveStock(new StockReservationRequest(order.getId(), items));
+        } catch (FeignException.Conflict e) {
+            throw new InsufficientStockException("Insufficient stock for order " + order.getOrderNumber());
+        }
+    }
+
+    /**
+     * Prefer committing the holds; if they already expired, fall back to a conditional decrement.
+     * Returns false when that fails too because the stock has been sold in the meantime.
+     */
+    private boolean commitStock(Order order) {
+        try {
+            productClient.commitReservation(order.getId());
+            return true;
+        } catch (FeignException.Conflict e) {
+            log.warn("Stock reservations for order {} are no longer held, decrementing stock directly",
+                    order.getOrderNumber());
+            Set<StockReduceRequest> stockReduceRequests = order.getItems()
+                    .stream()
+                    .map(item -> new StockReduceRequest(
+                            item.getProductId(),
+                            item.getQuantity()
+                    )).collect(Collectors.toSet());
+
+            try {
+                productClient.reduceStockBatch(stockReduceRequests);
+                return true;
+            } catch (FeignException.Conflict stockGone) {
+                // The payment is already captured, so failing here would only lose track of it
+                log.error("Stock for paid order {} is no longer available; it needs a refund or backorder",
+                        order.getOrderNumber());
+                return false;
+            }
+        }
+    }
+
+    // Best effort: holds that are not released here are expired by the product service
+    private void releaseStock(Long orderId) {
+        try {
+            productClient.releaseReservation(orderId);
+        } catch (Exception e) {
+            log.warn("Failed to release stock reservations for order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
     public Order lockOrder(Long orderId) {
         Order order = orderRepository
                 .findById(orderId)
@@ -472,20 +551,11 @@ public class OrderServiceImpl implements OrderService {
 
         if (paymentSuccess) {
             order.setPaymentStatus(Order.PaymentStatus.PAID);
-            order.setStatus(Order.OrderStatus.PROCESSING);
+            order.setStatus(commitStock(order) ? Order.OrderStatus.PROCESSING : Order.OrderStatus.STOCK_UNAVAILABLE);
             order.setLocked(false);
             order.setLockedAt(null);
             order.setUpdatedAt(LocalDateTime.now());
             orderRepository.save(order);
-
-            Set<StockReduceRequest> stockReduceRequests = order.getItems()
-                    .stream()
-                    .map(item -> new StockReduceRequest(
-                            item.getProductId(),
-                            item.getQuantity()
-                    )).collect(Collectors.toSet());
-
-            productClient.reduceStockBatch(stockReduceRequests);
         } else {
             order.setPaymentStatus(Order.PaymentStatus.FAILED);
             order.setStatus(Order.OrderStatus.PENDING);
@@ -493,6 +563,7 @@ public class OrderServiceImpl implements OrderService {
             order.setLockedAt(null);
             order.setUpdatedAt(LocalDateTime.now());
             orderRepository.save(order);
+            releaseStock(orderId);
         }
 
         orderRepository.save(order);
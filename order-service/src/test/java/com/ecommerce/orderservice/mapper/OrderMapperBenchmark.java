@@ -0,0 +1,118 @@
+package com.ecommerce.orderservice.mapper;
+
+import com.ecommerce.orderservice.dto.response.OrderResponse;
+import com.ecommerce.orderservice.entity.BillingAddress;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.ShippingAddress;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a five-item order with both addresses: the generated {@link OrderMapperImpl}
+ * against the default ModelMapper the order service used before. Not part of the test run:
+ *
+ * <pre>
+ * mvn -pl order-service test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main OrderMapperBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMapperBenchmark {
+
+    private static final int ITEMS = 5;
+
+    private final OrderMapper orderMapper = new OrderMapperImpl();
+    private final ModelMapper modelMapper = new ModelMapper();
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = new Order();
+        order.setId(10L);
+        order.setOrderNumber("ORD-20240102-0001");
+        order.setUserId(5L);
+        order.setStatus(Order.OrderStatus.PROCESSING);
+        order.setPaymentStatus(Order.PaymentStatus.PAID);
+        order.setPaymentMethod("CARD");
+        order.setPaymentId("pay_123");
+        order.setShippingMethod("EXPRESS");
+        order.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        order.setUpdatedAt(LocalDateTime.of(2024, 1, 3, 3, 4, 5));
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= ITEMS; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i);
+            item.setProductId(100L + i);
+            item.setProductName("Product " + i);
+            item.setProductSku("SKU-" + i);
+            item.setQuantity(i);
+            item.setUnitPrice(new BigDecimal("19.99"));
+            item.calculateTotal();
+            order.addItem(item);
+            total = total.add(item.getTotalPrice());
+        }
+        order.setTotalAmount(total);
+
+        ShippingAddress shipping = new ShippingAddress();
+        fillAddress(shipping);
+        order.setShippingAddress(shipping);
+        BillingAddress billing = new BillingAddress();
+        fillAddress(billing);
+        order.setBillingAddress(billing);
+    }
+
+    @Benchmark
+    public OrderResponse mapStruct() {
+        return orderMapper.toResponse(order);
+    }
+
+    @Benchmark
+    public OrderResponse modelMapper() {
+        return modelMapper.map(order, OrderResponse.class);
+    }
+
+    private static void fillAddress(ShippingAddress address) {
+        address.setFirstName("Ada");
+        address.setLastName("Lovelace");
+        address.setEmail("ada@example.com");
+        address.setPhone("+44 20 0000 0000");
+        address.setAddressLine1("1 Main St");
+        address.setAddressLine2("Flat 3");
+        address.setCity("London");
+        address.setState("Greater London");
+        address.setPostalCode("N1 1AA");
+        address.setCountry("UK");
+    }
+
+    private static void fillAddress(BillingAddress address) {
+        address.setFirstName("Ada");
+        address.setLastName("Lovelace");
+        address.setEmail("ada@example.com");
+        address.setPhone("+44 20 0000 0000");
+        address.setAddressLine1("1 Main St");
+        address.setAddressLine2("Flat 3");
+        address.setCity("London");
+        address.setState("Greater London");
+        address.setPostalCode("N1 1AA");
+        address.setCountry("UK");
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecommerce.orderservice.mapper;
+
+import com.ecommerce.orderservice.dto.AddressDto;
+import com.ecommerce.orderservice.dto.OrderItemDto;
+import com.ecommerce.orderservice.dto.response.OrderResponse;
+import com.ecommerce.orderservice.entity.BillingAddress;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.entity.ShippingAddress;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class OrderMapperTest {
+
+    private final OrderMapper orderMapper = new OrderMapperImpl();
+
+    @Test
+    void mapsOrderWithItemsAndAddresses() {
+        Order order = new Order();
+        order.setId(10L);
+        order.setOrderNumber("ORD-20240102-0001");
+        order.setUserId(5L);
+        order.setTotalAmount(new BigDecimal("59.97"));
+        order.setStatus(Order.OrderStatus.PROCESSING);
+        order.setPaymentStatus(Order.PaymentStatus.PAID);
+        order.setPaymentMethod("CARD");
+        order.setPaymentId("pay_123");
+        order.setShippingMethod("EXPRESS");
+        order.setTrackingNumber("TRK-9");
+        order.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        order.setUpdatedAt(LocalDateTime.of(2024, 1, 3, 3, 4, 5));
+        order.addItem(item(100L, 3));
+        order.setShippingAddress(shippingAddress());
+        order.setBillingAddress(billingAddress());
+
+        OrderResponse response = orderMapper.toResponse(order);
+
+        assertThat(response.getId()).isEqualTo(10L);
+        assertThat(response.getOrderNumber()).isEqualTo("ORD-20240102-0001");
+        assertThat(response.getUserId()).isEqualTo(5L);
+        assertThat(response.getTotalAmount()).isEqualByComparingTo("59.97");
+        assertThat(response.getStatus()).isEqualTo(Order.OrderStatus.PROCESSING);
+        assertThat(response.getPaymentStatus()).isEqualTo(Order.PaymentStatus.PAID);
+        assertThat(response.getPaymentMethod()).isEqualTo("CARD");
+        assertThat(response.getPaymentId()).isEqualTo("pay_123");
+        assertThat(response.getShippingMethod()).isEqualTo("EXPRESS");
+        assertThat(response.getTrackingNumber()).isEqualTo("TRK-9");
+        assertThat(response.getCreatedAt()).isEqualTo(order.getCreatedAt());
+        assertThat(response.getUpdatedAt()).isEqualTo(order.getUpdatedAt());
+        // Display-only fields are left for the service to fill in
+        assertThat(response.getFormattedTotal()).isNull();
+        assertThat(response.getItemCount()).isZero();
+
+        assertThat(response.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getId()).isEqualTo(100L);
+            assertThat(item.getProductId()).isEqualTo(7L);
+            assertThat(item.getProductName()).isEqualTo("Mug");
+            assertThat(item.getProductSku()).isEqualTo("MUG-1");
+            assertThat(item.getQuantity()).isEqualTo(3);
+            assertThat(item.getUnitPrice()).isEqualByComparingTo("19.99");
+            assertThat(item.getTotalPrice()).isEqualByComparingTo("59.97");
+            assertThat(item.getDiscountAmount()).isEqualByComparingTo("0");
+            assertThat(item.getTaxAmount()).isEqualByComparingTo("0");
+            assertThat(item.getImageUrl()).isNull();
+        });
+
+        assertAddress(response.getShippingAddress(), "Ada", "1 Main St");
+        assertAddress(response.getBillingAddress(), "Grace", "2 Side St");
+    }
+
+    @Test
+    void mapsOrderWithoutAddresses() {
+        Order order = new Order();
+        order.setId(11L);
+
+        OrderResponse response = orderMapper.toResponse(order);
+
+        assertThat(response.getItems()).isEmpty();
+        assertThat(response.getShippingAddress()).isNull();
+        assertThat(response.getBillingAddress()).isNull();
+    }
+
+    @Test
+    void mapsEachItemOfAMultiItemOrder() {
+        Order order = new Order();
+        order.addItem(item(1L, 1));
+        order.addItem(item(2L, 2));
+
+        assertThat(orderMapper.toResponse(order).getItems())
+                .extracting(OrderItemDto::getId, OrderItemDto::getQuantity)
+                .containsExactlyInAnyOrder(tuple(1L, 1), tuple(2L, 2));
+    }
+
+    private static void assertAddress(AddressDto address, String firstName, String addressLine1) {
+        assertThat(address.getFirstName()).isEqualTo(firstName);
+        assertThat(address.getLastName()).isEqualTo("Lovelace");
+        assertThat(address.getEmail()).isEqualTo(firstName.toLowerCase() + "@example.com");
+        assertThat(address.getPhone()).isEqualTo("+44 20 0000 0000");
+        assertThat(address.getAddressLine1()).isEqualTo(addressLine1);
+        assertThat(address.getAddressLine2()).isEqualTo("Flat 3");
+        assertThat(address.getCity()).isEqualTo("London");
+        assertThat(address.getState()).isEqualTo("Greater London");
+        assertThat(address.getPostalCode()).isEqualTo("N1 1AA");
+        assertThat(address.getCountry()).isEqualTo("UK");
+        assertThat(address.getCompany()).isEqualTo("Analytical Engines");
+        assertThat(address.getId()).isNull();
+        assertThat(address.getAddressType()).isNull();
+    }
+
+    private static OrderItem item(Long id, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setId(id);
+        item.setProductId(7L);
+        item.setProductName("Mug");
+        item.setProductSku("MUG-1");
+        item.setQuantity(quantity);
+        item.setUnitPrice(new BigDecimal("19.99"));
+        item.calculateTotal();
+        return item;
+    }
+
+    private static ShippingAddress shippingAddress() {
+        ShippingAddress address = new ShippingAddress();
+        address.setFirstName("Ada");
+        address.setLastName("Lovelace");
+        address.setEmail("ada@example.com");
+        address.setPhone("+44 20 0000 0000");
+        address.setAddressLine1("1 Main St");
+        address.setAddressLine2("Flat 3");
+        address.setCity("London");
+        address.setState("Greater London");
+        address.setPostalCode("N1 1AA");
+        address.setCountry("UK");
+        address.setCompany("Analytical Engines");
+        return address;
+    }
+
+    private static BillingAddress billingAddress() {
+        BillingAddress address = new BillingAddress();
+        address.setFirstName("Grace");
+        address.setLastName("Lovelace");
+        address.setEmail("grace@example.com");
+        address.setPhone("+44 20 0000 0000");
+        address.setAddressLine1("2 Side St");
+        address.setAddressLine2("Flat 3");
+        address.setCity("London");
+        address.setState("Greater London");
+        address.setPostalCode("N1 1AA");
+        address.setCountry("UK");
+        address.setCompany("Analytical Engines");
+        return address;
+    }
+}
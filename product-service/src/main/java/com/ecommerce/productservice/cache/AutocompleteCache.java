@@ -0,0 +1,41 @@
+package com.ecommerce.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Small in-process cache of autocomplete suggestions keyed by normalized prefix. Prefix
+ * traffic is heavily skewed, so a few thousand entries with a short TTL absorb most
+ * keystrokes; staleness is bounded by the TTL rather than by explicit invalidation.
+ */
+@Component
+public class AutocompleteCache {
+
+    public static final String CACHE_NAME = "autocompleteSuggestions";
+
+    private final Cache<String, List<String>> cache;
+
+    public AutocompleteCache(
+            MeterRegistry meterRegistry,
+            @Value("${product.search.autocomplete.cache-size:5000}") long maxSize,
+            @Value("${product.search.autocomplete.cache-ttl:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public List<String> get(String prefix, Function<String, List<String>> loader) {
+        return cache.get(prefix, loader);
+    }
+}
@@ -0,0 +1,273 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.entity.Category;
+import com.ecommerce.productservice.entity.CategoryProductStats;
+import com.ecommerce.productservice.mapper.CategoryMapper;
+import com.ecommerce.productservice.repository.CategoryProductStatsRepository;
+import com.ecommerce.productservice.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable in-memory snapshot of the full category tree. Every category's ancestors,
+ * descendants and response DTO are precomputed when the snapshot is built, so lookups
+ * never touch the database. The snapshot is loaded on first use and rebuilt whenever a
+ * category changes on any replica (see CategoryInvalidationConsumer), with a periodic
+ * refresh as a fallback. Product counts come from category_product_stats, which changes far
+ * more often than the tree, so it is polled separately and the snapshot is rebuilt only when
+ * the counts actually moved.
+ *
+ * The returned DTOs are shared between callers and must not be modified.
+ */
+@Component
+public class CategoryHierarchyCache {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryHierarchyCache.class);
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryProductStatsRepository statsRepository;
+    private final CategoryMapper categoryMapper;
+    private final TransactionTemplate readTransaction;
+
+    private volatile Snapshot snapshot;
+
+    public CategoryHierarchyCache(CategoryRepository categoryRepository,
+                                  CategoryProductStatsRepository statsRepository,
+                                  CategoryMapper categoryMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.statsRepository = statsRepository;
+        this.categoryMapper = categoryMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // Rebuilds run from afterCommit callbacks, where the finished transaction is still bound
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<CategoryResponse> getAll() {
+        return current().all;
+    }
+
+    public CategoryResponse get(Long categoryId) {
+        return current().responses.get(categoryId);
+    }
+
+    /**
+     * The category and all of its descendants at any depth, or an empty set if it does not exist.
+     */
+    public Set<Long> getSubtreeIds(Long categoryId) {
+        return current().subtrees.getOrDefault(categoryId, Collections.emptySet());
+    }
+
+    /**
+     * Entity tag of the full category list, or of one category's response (which embeds its
+     * whole subtree). Precomputed with the snapshot, so revalidation costs a map lookup.
+     */
+    public String getAllEtag() {
+        return current().allEtag;
+    }
+
+    public String getEtag(Long categoryId) {
+        return current().etags.get(categoryId);
+    }
+
+    /**
+     * Ancestors of the category, nearest parent first.
+     */
+    public List<Long> getAncestorIds(Long categoryId) {
+        return current().ancestors.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    /**
+     * Reload the tree from the database and atomically replace the current snapshot.
+     * Rebuilds are serialized so a slow, older read can never overwrite a newer one.
+     */
+    public synchronized void rebuild() {
+        snapshot = load();
+    }
+
+    // Safety net in case an invalidation event is lost; a no-op until the snapshot is first used
+    @Scheduled(initialDelayString = "${product.cache.category.refresh-interval-ms:600000}",
+            fixedDelayString = "${product.cache.category.refresh-interval-ms:600000}")
+    public void refresh() {
+        if (snapshot != null) {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.warn("Periodic category hierarchy refresh failed, keeping previous snapshot: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${product.cache.category.stats-refresh-interval-ms:30000}",
+            fixedDelayString = "${product.cache.category.stats-refresh-interval-ms:30000}")
+    public void refreshStats() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            Map<Long, CategoryProductStats> stats = readTransaction.execute(status -> loadStats());
+            if (!current.stats.equals(stats)) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.warn("Category product count refresh failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        long start = System.nanoTime();
+        Snapshot loaded = readTransaction.execute(status ->
+                new Snapshot(categoryRepository.findAll(), loadStats(), categoryMapper));
+        logger.info("Loaded category hierarchy snapshot with {} categories in {} ms",
+                loaded.responses.size(), (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    private Map<Long, CategoryProductStats> loadStats() {
+        Map<Long, CategoryProductStats> stats = new HashMap<>();
+        statsRepository.findAll().forEach(row -> stats.put(row.getCategoryId(), row));
+        return stats;
+    }
+
+    private static final class Snapshot {
+        private final CategoryMapper mapper;
+        final Map<Long, CategoryProductStats> stats;
+        final Map<Long, CategoryResponse> responses = new HashMap<>();
+        final Map<Long, Set<Long>> subtrees = new HashMap<>();
+        final Map<Long, List<Long>> ancestors = new HashMap<>();
+        final Map<Long, String> etags = new HashMap<>();
+        final List<CategoryResponse> all;
+        final String allEtag;
+        private final Set<Long> visiting = new HashSet<>();
+
+        Snapshot(List<Category> categories, Map<Long, CategoryProductStats> stats, CategoryMapper mapper) {
+            this.mapper = mapper;
+            this.stats = stats;
+            Map<Long, Category> byId = new HashMap<>();
+            Map<Long, List<Long>> childIds = new HashMap<>();
+            for (Category category : categories) {
+                byId.put(category.getId(), category);
+            }
+            for (Category category : categories) {
+                Long parentId = parentId(category);
+                if (parentId != null && byId.containsKey(parentId)) {
+                    childIds.computeIfAbsent(parentId, k -> new ArrayList<>()).add(category.getId());
+                }
+            }
+
+            for (Category category : categories) {
+                build(category.getId(), byId, childIds);
+                ancestors.put(category.getId(), ancestorsOf(category, byId));
+            }
+
+            List<CategoryResponse> ordered = new ArrayList<>(categories.size());
+            categories.forEach(category -> ordered.add(responses.get(category.getId())));
+            this.all = Collections.unmodifiableList(ordered);
+
+            // A response changes when any category in its subtree changes, moves or disappears
+            subtrees.forEach((id, subtree) -> etags.put(id, "c" + id + "-" + Long.toHexString(version(subtree))));
+            this.allEtag = "c-" + ordered.size() + "-" + Long.toHexString(version(responses.keySet()));
+        }
+
+        private long version(Collection<Long> categoryIds) {
+            long hash = 1125899906842597L;
+            for (Long id : new TreeSet<>(categoryIds)) {
+                CategoryResponse response = responses.get(id);
+                hash = 31 * hash + id;
+                hash = 31 * hash + Objects.hashCode(response.getParentId());
+                hash = 31 * hash + Objects.hashCode(response.getUpdatedAt());
+                hash = 31 * hash + Objects.hashCode(stats.get(id));
+            }
+            return hash;
+        }
+
+        // Post-order so each child's DTO is complete before it is hashed into its parent's set
+        private void build(Long id, Map<Long, Category> byId, Map<Long, List<Long>> childIds) {
+            if (responses.containsKey(id) || !visiting.add(id)) {
+                return;
+            }
+            Category category = byId.get(id);
+            Set<Long> subtree = new LinkedHashSet<>();
+            subtree.add(id);
+            Set<CategoryResponse> children = new HashSet<>();
+            for (Long childId : childIds.getOrDefault(id, Collections.emptyList())) {
+                build(childId, byId, childIds);
+                if (!subtrees.containsKey(childId)) {
+                    // Only reachable through a cycle in corrupt parent links
+                    continue;
+                }
+                subtree.addAll(subtrees.get(childId));
+                children.add(responses.get(childId));
+            }
+
+            CategoryResponse response = mapper.toResponse(category);
+            long products = 0;
+            long active = 0;
+            long inStock = 0;
+            for (Long member : subtree) {
+                CategoryProductStats row = stats.get(member);
+                if (row != null) {
+                    products += row.getProductCount();
+                    active += row.getActiveCount();
+                    inStock += row.getInStockCount();
+                }
+            }
+            response.setProductCount(products);
+            response.setActiveProductCount(active);
+            response.setInStockProductCount(inStock);
+            if (!children.isEmpty()) {
+                response.setChildren(Collections.unmodifiableSet(children));
+            }
+
+            responses.put(id, response);
+            subtrees.put(id, Collections.unmodifiableSet(subtree));
+        }
+
+        private static List<Long> ancestorsOf(Category category, Map<Long, Category> byId) {
+            List<Long> result = new ArrayList<>();
+            Long parentId = parentId(category);
+            while (parentId != null && byId.containsKey(parentId) && !result.contains(parentId)) {
+                result.add(parentId);
+                parentId = parentId(byId.get(parentId));
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        private static Long parentId(Category category) {
+            return category.getParent() != null ? category.getParent().getId() : null;
+        }
+    }
+}
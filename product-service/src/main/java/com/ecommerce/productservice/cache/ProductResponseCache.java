@@ -0,0 +1,78 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of product read models, keyed by product id.
+ * Entries are evicted by size and TTL, and explicitly whenever a product changes
+ * on any replica (see ProductInvalidationConsumer).
+ */
+@Component
+public class ProductResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProductResponseCache.class);
+
+    public static final String CACHE_NAME = "productResponses";
+
+    private final boolean enabled;
+    private final Cache<Long, ProductResponse> cache;
+
+    public ProductResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.enabled:true}") boolean enabled,
+            @Value("${product.cache.near.max-size:10000}") long maxSize,
+            @Value("${product.cache.near.ttl:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public ProductResponse get(Long productId, Function<Long, ProductResponse> loader) {
+        if (!enabled) {
+            return loader.apply(productId);
+        }
+        return cache.get(productId, loader);
+    }
+
+    /**
+     * The cached response, without loading it on a miss.
+     */
+    public ProductResponse getIfPresent(Long productId) {
+        return enabled ? cache.getIfPresent(productId) : null;
+    }
+
+    public Map<Long, ProductResponse> getAll(Collection<Long> productIds,
+                                             Function<List<Long>, Map<Long, ProductResponse>> loader) {
+        if (!enabled) {
+            return loader.apply(new ArrayList<>(productIds));
+        }
+        return cache.getAll(productIds, missing -> {
+            List<Long> ids = new ArrayList<>();
+            missing.forEach(ids::add);
+            return loader.apply(ids);
+        });
+    }
+
+    public void evictAll(Collection<Long> productIds) {
+        logger.debug("Evicting products from near cache: {}", productIds);
+        cache.invalidateAll(productIds);
+    }
+}
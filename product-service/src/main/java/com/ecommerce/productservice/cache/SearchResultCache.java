@@ -0,0 +1,157 @@
+package com.ecommerce.productservice.cache;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Supplier;
+
+/**
+ * Redis cache of product search result pages, shared by all replicas. Keys embed a
+ * generation number that is bumped whenever the live search index changes, so a single
+ * INCR retires every cached page at once; old entries simply age out through the TTL.
+ * Redis failures degrade to an uncached search.
+ */
+@Component
+public class SearchResultCache {
+    private static final Logger logger = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private static final String KEY_PREFIX = "product-search:";
+    private static final String GENERATION_KEY = KEY_PREFIX + "generation";
+    private static final int MAX_KEY_LENGTH = 512;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration ttl;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer missLatency;
+    private final DoubleAdder savedSeconds = new DoubleAdder();
+
+    public SearchResultCache(
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${product.search.cache.enabled:true}") boolean enabled,
+            @Value("${product.search.cache.ttl:30}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+
+        this.hits = Counter.builder("product.search.cache.requests").tag("result", "hit")
+                .description("Search pages served from the Redis result cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("product.search.cache.requests").tag("result", "miss")
+                .description("Search pages that had to be computed by Elasticsearch")
+                .register(meterRegistry);
+        this.missLatency = Timer.builder("product.search.cache.miss.latency")
+                .description("Elasticsearch time for search pages not found in the cache")
+                .register(meterRegistry);
+        Gauge.builder("product.search.cache.hit.ratio", this, SearchResultCache::hitRatio)
+                .description("Share of search pages served from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("product.search.cache.saved", savedSeconds, DoubleAdder::sum)
+                .description("Estimated Elasticsearch time avoided by cache hits, at the mean miss latency")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public Page<ProductResponse> get(String query, Long categoryId, Pageable pageable,
+                                     Supplier<Page<ProductResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String key = null;
+        try {
+            key = key(query, categoryId, pageable);
+            String cached = key != null ? redisTemplate.opsForValue().get(key) : null;
+            if (cached != null) {
+                CachedPage page = objectMapper.readValue(cached, CachedPage.class);
+                hits.increment();
+                savedSeconds.add(missLatency.mean(TimeUnit.SECONDS));
+                return new PageImpl<>(page.getContent(), pageable, page.getTotalElements());
+            }
+        } catch (Exception e) {
+            logger.warn("Search cache read failed, searching without cache: {}", e.getMessage());
+            key = null;
+        }
+
+        misses.increment();
+        Page<ProductResponse> result = missLatency.record(loader);
+        if (key != null) {
+            try {
+                String value = objectMapper.writeValueAsString(
+                        new CachedPage(result.getContent(), result.getTotalElements()));
+                redisTemplate.opsForValue().set(key, value, ttl);
+            } catch (Exception e) {
+                logger.warn("Search cache write failed: {}", e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retire every cached page. Called after changes reach the live search index.
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Long generation = redisTemplate.opsForValue().increment(GENERATION_KEY);
+            logger.debug("Search cache generation is now {}", generation);
+        } catch (Exception e) {
+            // Stale pages still expire through the TTL
+            logger.warn("Failed to bump search cache generation: {}", e.getMessage());
+        }
+    }
+
+    private String key(String query, Long categoryId, Pageable pageable) {
+        String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+        String normalized = query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        String key = KEY_PREFIX + (generation != null ? generation : "0")
+                + ":" + (categoryId != null ? categoryId : "-")
+                + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize()
+                + ":" + pageable.getSort()
+                + ":" + normalized;
+        // Very long queries are rare and not worth caching
+        return key.length() <= MAX_KEY_LENGTH ? key : null;
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CachedPage {
+        private List<ProductResponse> content;
+        private long totalElements;
+    }
+}
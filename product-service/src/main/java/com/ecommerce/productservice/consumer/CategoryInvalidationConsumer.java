@@ -0,0 +1,24 @@
+package com.ecommerce.productservice.consumer;
+
+import com.ecommerce.productservice.cache.CategoryHierarchyCache;
+import com.ecommerce.productservice.dto.event.CategoryInvalidationEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class CategoryInvalidationConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryInvalidationConsumer.class);
+
+    private final CategoryHierarchyCache categoryHierarchyCache;
+
+    @KafkaListener(topics = "${kafka.topics.category-invalidation:category-invalidation-topic}",
+            containerFactory = "categoryInvalidationKafkaListenerContainerFactory")
+    public void handle(CategoryInvalidationEvent event) {
+        logger.debug("Received CategoryInvalidationEvent: {}", event);
+        categoryHierarchyCache.rebuild();
+    }
+}
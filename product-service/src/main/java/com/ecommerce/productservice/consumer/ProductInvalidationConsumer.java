@@ -0,0 +1,26 @@
+package com.ecommerce.productservice.consumer;
+
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.dto.event.ProductInvalidationEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class ProductInvalidationConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(ProductInvalidationConsumer.class);
+
+    private final ProductResponseCache productResponseCache;
+
+    @KafkaListener(topics = "${kafka.topics.product-invalidation:product-invalidation-topic}",
+            containerFactory = "productInvalidationKafkaListenerContainerFactory")
+    public void handle(ProductInvalidationEvent event) {
+        logger.debug("Received ProductInvalidationEvent: {}", event);
+        if (event.getProductIds() != null && !event.getProductIds().isEmpty()) {
+            productResponseCache.evictAll(event.getProductIds());
+        }
+    }
+}
@@ -6,14 +6,19 @@ import com.ecommerce.productservice.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -23,20 +28,31 @@ public class CategoryController {
 
     private final CategoryService categoryService;
 
+    @Value("${product.http.category-max-age:300}")
+    private long categoryMaxAge;
+
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getAllCategories() {
+    public ResponseEntity<List<CategoryResponse>> getAllCategories(WebRequest webRequest) {
         logger.info("Received request to get all categories");
+        String etag = categoryService.getAllCategoriesEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
         List<CategoryResponse> categories = categoryService.getAllCategories();
         logger.debug("Retrieved {} categories", categories.size());
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl()).body(categories);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
         logger.info("Received request to get category by id: {}", id);
+        String etag = categoryService.getCategoryEtag(id);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
         CategoryResponse category = categoryService.getCategoryById(id);
         logger.debug("Retrieved category with id {}: {}", id, category);
-        return ResponseEntity.ok(category);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl()).body(category);
     }
 
     @PostMapping
@@ -73,4 +89,13 @@ public class CategoryController {
         logger.info("Successfully deleted category with id: {}", id);
         return ResponseEntity.noContent().build();
     }
+
+    // The tree is the same for every caller, so shared caches may keep it and revalidate by ETag
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(categoryMaxAge, TimeUnit.SECONDS).cachePublic();
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl()).build();
+    }
 }
@@ -1,23 +1,45 @@
 package com.ecommerce.productservice.controller;
 
+import com.ecommerce.productservice.dto.FacetedSearchResponse;
+import com.ecommerce.productservice.dto.ProductCursorPage;
+import com.ecommerce.productservice.dto.ProductImportFormat;
+import com.ecommerce.productservice.dto.ProductImportResult;
 import com.ecommerce.productservice.dto.ProductRequest;
 import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSearchFilter;
 import com.ecommerce.productservice.dto.StockReduceRequest;
+import com.ecommerce.productservice.dto.StockReduceResult;
+import com.ecommerce.productservice.service.ProductImportService;
 import com.ecommerce.productservice.service.ProductService;
+import com.ecommerce.productservice.service.StripedStockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/products")
@@ -25,22 +47,113 @@ import java.util.Map;
 public class ProductController {
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
+    public static final String NEXT_AFTER_HEADER = "X-Next-After";
+
     private final ProductService productService;
+    private final StripedStockService stripedStockService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
 
-    @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
+    @Value("${product.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${product.http.product-max-age:30}")
+    private long productMaxAge;
+
+    @Value("${product.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    /**
+     * Without paging parameters the whole catalog is returned as one JSON array, as before
+     * keyset paging was introduced. It is written while the catalog is read page by page, so
+     * memory use does not grow with the catalog; new clients should page with after/limit.
+     */
+    @GetMapping(params = {"!after", "!limit"})
+    public ResponseEntity<StreamingResponseBody> getAllProductsUnpaged() {
         logger.info("Received request to get all products");
-        List<ProductResponse> products = productService.getAllProducts();
+        ObjectWriter writer = objectMapper.writerFor(ProductResponse.class);
+        StreamingResponseBody body = out -> {
+            out.write('[');
+            boolean[] first = {true};
+            productService.streamAllProducts(product -> {
+                try {
+                    if (!first[0]) {
+                        out.write(',');
+                    }
+                    first[0] = false;
+                    out.write(writer.writeValueAsBytes(product));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.write(']');
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ProductResponse>> getAllProducts(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = (limit == null || limit <= 0) ? maxPageSize : Math.min(limit, maxPageSize);
+        logger.info("Received request to get products - after: {}, limit: {}", after, pageSize);
+        List<ProductResponse> products = productService.getProductsAfter(after, pageSize);
         logger.debug("Retrieved {} products", products.size());
-        return ResponseEntity.ok(products);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (products.size() == pageSize) {
+            // A full page means there may be more; hand back the keyset cursor for the next call
+            response.header(NEXT_AFTER_HEADER, String.valueOf(products.get(products.size() - 1).getId()));
+        }
+        return response.body(products);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        logger.info("Received request to export all products as NDJSON");
+        ObjectWriter writer = objectMapper.writerFor(ProductResponse.class);
+        StreamingResponseBody body = out -> productService.streamAllProducts(product -> {
+            try {
+                out.write(writer.writeValueAsBytes(product));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest webRequest) {
         logger.info("Received request to get product by id: {}", id);
+        String etag = productService.getProductEtag(id);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(productCacheControl()).build();
+        }
         ProductResponse product = productService.getProductById(id);
         logger.debug("Retrieved product with id {}: {}", id, product);
-        return ResponseEntity.ok(product);
+        // Tagged from the body itself so a concurrent change can never pair a newer tag with older content
+        return ResponseEntity.ok()
+                .eTag(productService.getProductEtag(product))
+                .cacheControl(productCacheControl())
+                .body(product);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, ProductResponse>> getProductsByIds(@RequestBody List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > maxBatchIds) {
+            logger.warn("Rejected batch lookup of {} distinct ids, limit is {}", distinctIds.size(), maxBatchIds);
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received request to get {} products by id", distinctIds.size());
+        Map<Long, ProductResponse> products = productService.getProductsByIds(distinctIds);
+        logger.debug("Retrieved {} of {} requested products", products.size(), distinctIds.size());
+        return ResponseEntity.ok(products);
     }
 
     @GetMapping("/category/{categoryId}")
@@ -78,11 +191,35 @@ public class ProductController {
     }
 
     @PostMapping("/decrement-stock/batch")
-    public ResponseEntity<Void> reduceStockBatch(
+    public ResponseEntity<List<StockReduceResult>> reduceStockBatch(
             @RequestBody List<StockReduceRequest> requests) {
+        logger.info("Received request to reduce stock for {} items", requests.size());
+        List<StockReduceResult> results = productService.reduceStockBatch(requests);
+        boolean allReduced = results.stream().allMatch(StockReduceResult::isSuccess);
+        return ResponseEntity.status(allReduced ? HttpStatus.OK : HttpStatus.CONFLICT).body(results);
+    }
 
-        productService.reduceStockBatch(requests);
-        return ResponseEntity.ok().build();
+    // Streams the upload; bad rows are reported in the result instead of failing the file
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ProductImportResult> importProductsCsv(InputStream body) {
+        logger.info("Received CSV product import");
+        return ResponseEntity.ok(productImportService.importProducts(body, ProductImportFormat.CSV));
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ProductImportResult> importProductsNdjson(InputStream body) {
+        logger.info("Received NDJSON product import");
+        return ResponseEntity.ok(productImportService.importProducts(body, ProductImportFormat.NDJSON));
+    }
+
+    // Split a hot SKU's stock across sub-counters ahead of a flash sale; 0 turns striping off
+    @PutMapping("/{id}/stock-stripes")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ProductResponse> configureStockStripes(@PathVariable Long id, @RequestParam int count) {
+        logger.info("Received request to use {} stock stripes for product {}", count, id);
+        return ResponseEntity.ok(stripedStockService.configureStripes(id, count));
     }
 
     @DeleteMapping("/{id}")
@@ -113,6 +250,36 @@ public class ProductController {
         return ResponseEntity.ok(results);
     }
 
+    /**
+     * Cursor-paged search. Start with a query (and optional category); continue with only
+     * the cursor returned by the previous page until no cursor comes back.
+     */
+    @GetMapping("/search/cursor")
+    public ResponseEntity<ProductCursorPage> searchProductsWithCursor(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        if (cursor == null && (query == null || query.isBlank())) {
+            logger.warn("Cursor search request without query or cursor");
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        logger.info("Received cursor search request - query: {}, categoryId: {}, continued: {}, size: {}",
+                query, categoryId, cursor != null, pageSize);
+        ProductCursorPage page = productService.searchProductsAfter(query, categoryId, cursor, pageSize);
+        logger.debug("Cursor search returned {} results", page.getContent().size());
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/search/faceted")
+    public ResponseEntity<FacetedSearchResponse> searchProductsFaceted(ProductSearchFilter filter, Pageable pageable) {
+        logger.info("Received faceted search request - filter: {}, pageable: {}", filter, pageable);
+        FacetedSearchResponse results = productService.searchProductsFaceted(filter, pageable);
+        logger.debug("Faceted search returned {} results", results.getTotalElements());
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/search/autocomplete")
     public ResponseEntity<List<String>> autocompleteSearch(@RequestParam String query) {
         logger.debug("Received autocomplete request for query: {}", query);
@@ -120,4 +287,9 @@ public class ProductController {
         logger.debug("Returning {} suggestions for query: {}", suggestions.size(), query);
         return ResponseEntity.ok(suggestions);
     }
-}
\ No newline at end of file
+
+    private CacheControl productCacheControl() {
+        // Short-lived: stock moves often, and clients revalidate cheaply with If-None-Match
+        return CacheControl.maxAge(productMaxAge, TimeUnit.SECONDS).cachePublic();
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.dto.ReindexStatus;
+import com.ecommerce.productservice.service.ProductReindexService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/products/search-index")
+@RequiredArgsConstructor
+public class SearchIndexController {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexController.class);
+
+    private final ProductReindexService productReindexService;
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ReindexStatus> rebuildIndex() {
+        logger.info("Received request to rebuild the product search index");
+        ReindexStatus status = productReindexService.startReindex();
+        logger.info("Started product reindex into {}", status.getTargetIndex());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/rebuild")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ReindexStatus> getRebuildStatus() {
+        return ResponseEntity.ok(productReindexService.getStatus());
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.productservice.controller;
+
+import com.ecommerce.productservice.dto.StockReservationRequest;
+import com.ecommerce.productservice.dto.StockReservationResult;
+import com.ecommerce.productservice.service.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/products/reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationController.class);
+
+    private final StockReservationService stockReservationService;
+
+    @PostMapping
+    public ResponseEntity<StockReservationResult> reserve(@Valid @RequestBody StockReservationRequest request) {
+        logger.info("Received request to reserve stock for order {} ({} items)",
+                request.getOrderId(), request.getItems().size());
+        StockReservationResult result = stockReservationService.reserve(request);
+        return ResponseEntity.status(result.isSuccess() ? HttpStatus.CREATED : HttpStatus.CONFLICT).body(result);
+    }
+
+    @PostMapping("/{orderId}/commit")
+    public ResponseEntity<StockReservationResult> commit(@PathVariable Long orderId) {
+        logger.info("Received request to commit stock reservations for order {}", orderId);
+        StockReservationResult result = stockReservationService.commit(orderId);
+        return ResponseEntity.status(result.isSuccess() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+
+    @PostMapping("/{orderId}/release")
+    public ResponseEntity<Void> release(@PathVariable Long orderId) {
+        logger.info("Received request to release stock reservations for order {}", orderId);
+        stockReservationService.release(orderId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -6,13 +6,20 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import java.math.BigDecimal;
 
-@Document(indexName = "products")
+// "products" is an alias over a versioned index; see ProductReindexServiceImpl
+@Document(indexName = "products", createIndex = false)
+@Setting(settingPath = "/elasticsearch/product-settings.json")
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,7 +28,14 @@ public class ProductDocument {
     @Id
     private Long id;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    // name.ngram holds trigrams so substring matches do not need a leading wildcard;
+    // name.short holds 1-2 character grams for queries shorter than a trigram
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "standard"),
+            otherFields = {
+                    @InnerField(suffix = "ngram", type = FieldType.Text, analyzer = "name_ngram"),
+                    @InnerField(suffix = "short", type = FieldType.Text, analyzer = "name_short")
+            })
     private String name;
 
     @Field(type = FieldType.Text, analyzer = "standard")
@@ -45,6 +59,14 @@ public class ProductDocument {
     @Field(type = FieldType.Boolean)
     private Boolean isActive = true;
 
+    // Copy of specification.brand as a keyword so it can be filtered and aggregated on
+    @Field(type = FieldType.Keyword)
+    private String brand;
+
     @Field(type = FieldType.Object)
     private ProductSpecification specification;
+
+    // Name and brand inputs for the completion suggester behind autocomplete; unset for inactive products
+    @CompletionField(maxInputLength = 100)
+    private Completion suggest;
 }
\ No newline at end of file
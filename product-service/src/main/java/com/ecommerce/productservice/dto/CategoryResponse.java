@@ -14,6 +14,10 @@ public class CategoryResponse {
     private String imageUrl;
     private Long parentId;
     private Set<CategoryResponse> children;
+    // Products in this category and all of its subcategories
+    private Long productCount;
+    private Long activeProductCount;
+    private Long inStockProductCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,22 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResponse {
+    private List<ProductResponse> content;
+    private long totalElements;
+    private int page;
+    private int size;
+    private List<FacetBucket> brands;
+    private List<FacetBucket> categories;
+    private List<FacetBucket> priceRanges;
+}
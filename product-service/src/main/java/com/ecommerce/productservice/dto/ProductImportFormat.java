@@ -0,0 +1,6 @@
+package com.ecommerce.productservice.dto;
+
+public enum ProductImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResult {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private long indexFailures;
+    // Capped by product.import.max-reported-errors; failed always has the full count
+    private List<ProductImportError> errors;
+    private long durationMs;
+    private double rowsPerSecond;
+}
@@ -13,6 +13,7 @@ public class ProductResponse {
     private String description;
     private BigDecimal price;
     private Integer stockQuantity;
+    private Integer availableQuantity;
     private String sku;
     private Set<String> imageUrls;
     private String categoryName;
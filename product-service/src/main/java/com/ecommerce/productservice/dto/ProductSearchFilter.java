@@ -0,0 +1,15 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class ProductSearchFilter {
+    private String query;
+    private Long categoryId;
+    private List<String> brands;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReduceResult {
+    private Long productId;
+    private Integer quantity;
+    private boolean success;
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationResult {
+    private Long orderId;
+    private boolean success;
+    private LocalDateTime expiresAt;
+    private List<StockReduceResult> items;
+}
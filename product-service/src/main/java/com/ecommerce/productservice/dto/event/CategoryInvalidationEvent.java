@@ -0,0 +1,14 @@
+package com.ecommerce.productservice.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryInvalidationEvent {
+    private Long categoryId;
+}
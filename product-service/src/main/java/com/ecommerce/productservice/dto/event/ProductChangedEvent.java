@@ -0,0 +1,66 @@
+package com.ecommerce.productservice.dto.event;
+
+import com.ecommerce.productservice.entity.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Published to the product-changed topic, keyed by product id, whenever a product's
+ * name, price, stock or active flag changes. Only the fields that changed are set;
+ * consumers merge them into their own projection. changedAt (epoch millis) lets a
+ * consumer drop an event older than the state it already holds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChangedEvent {
+    private Long productId;
+    private String name;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Integer availableQuantity;
+    private Boolean active;
+    private long changedAt;
+
+    public static ProductChangedEvent of(Product product) {
+        return ProductChangedEvent.builder()
+                .productId(product.getId())
+                .name(product.getName())
+                .price(product.getPrice())
+                .stockQuantity(product.getStockQuantity())
+                .availableQuantity(product.getAvailableQuantity())
+                .active(product.getIsActive())
+                .changedAt(System.currentTimeMillis())
+                .build();
+    }
+
+    public static ProductChangedEvent stock(Long productId, int stockQuantity, int reservedQuantity) {
+        return ProductChangedEvent.builder()
+                .productId(productId)
+                .stockQuantity(stockQuantity)
+                .availableQuantity(Math.max(0, stockQuantity - reservedQuantity))
+                .changedAt(System.currentTimeMillis())
+                .build();
+    }
+
+    public static ProductChangedEvent deactivated(Long productId) {
+        return ProductChangedEvent.builder()
+                .productId(productId)
+                .active(false)
+                .changedAt(System.currentTimeMillis())
+                .build();
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return name == null && price == null && stockQuantity == null && availableQuantity == null && active == null;
+    }
+}
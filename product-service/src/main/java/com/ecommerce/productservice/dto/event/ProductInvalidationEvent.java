@@ -0,0 +1,16 @@
+package com.ecommerce.productservice.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductInvalidationEvent {
+    private List<Long> productIds;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.productservice.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+
+/**
+ * Summary row of the products directly assigned to one category. Kept current by delta
+ * upserts in the same transaction as each product change (see CategoryStatsService) and
+ * periodically reconciled against the products table.
+ */
+@Data
+@Entity
+@Table(name = "category_product_stats")
+public class CategoryProductStats {
+
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "product_count", nullable = false)
+    private long productCount;
+
+    @Column(name = "active_count", nullable = false)
+    private long activeCount;
+
+    @Column(name = "in_stock_count", nullable = false)
+    private long inStockCount;
+}
@@ -37,6 +37,16 @@ public class Product {
     @PositiveOrZero
     private Integer stockQuantity = 0;
 
+    // Units held by open order reservations; only changed through ProductStockRepository
+    @Column(name = "reserved_quantity", columnDefinition = "integer not null default 0",
+            insertable = false, updatable = false)
+    private Integer reservedQuantity = 0;
+
+    // Sub-counters the stock of a hot SKU is split across, 0 when not striped; see ProductStockRepository
+    @Column(name = "stripe_count", columnDefinition = "integer not null default 0",
+            insertable = false, updatable = false)
+    private Integer stripeCount = 0;
+
     @NotBlank
     @Size(max = 100)
     private String sku;
@@ -64,6 +74,16 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * On-hand stock that is not held by a reservation and can still be sold.
+     */
+    public int getAvailableQuantity() {
+        // For striped products the stripe totals are folded into this row by the rebalancer
+        int onHand = stockQuantity != null ? stockQuantity : 0;
+        int reserved = reservedQuantity != null ? reservedQuantity : 0;
+        return Math.max(0, onHand - reserved);
+    }
+
     public void setCategory(Category category) {
         if (this.category != null) {
             this.category.getProducts().remove(this);
@@ -0,0 +1,50 @@
+package com.ecommerce.productservice.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "product_outbox",
+        indexes = {
+                @Index(name = "idx_product_outbox_pending", columnList = "relayed_at, next_attempt_at"),
+                @Index(name = "idx_product_outbox_created_at", columnList = "created_at")
+        })
+public class ProductOutboxEvent {
+
+    public enum EventType {
+        UPSERT,
+        DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private EventType eventType;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Set once applied; relayed rows are kept for a while as the change log a reindex catches up from
+    @Column(name = "relayed_at")
+    private LocalDateTime relayedAt;
+}
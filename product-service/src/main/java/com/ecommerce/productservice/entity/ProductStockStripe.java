@@ -0,0 +1,30 @@
+package com.ecommerce.productservice.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+
+/**
+ * One sub-counter of a striped product's available stock. Checkouts decrement different
+ * stripes of the same product, so they lock different rows instead of queueing on the
+ * product row.
+ */
+@Data
+@Entity
+@Table(name = "product_stock_stripes",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_stock_stripe", columnNames = {"product_id", "stripe"}))
+public class ProductStockStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer stripe;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.productservice.mapper;
+
+import com.ecommerce.productservice.dto.CategoryRequest;
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.entity.Category;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Compile-time generated category mappings. Children are left to the caller so that
+ * mapping a single category never walks the lazy children collection.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CategoryMapper {
+
+    @Mapping(target = "parentId", source = "parent.id")
+    @Mapping(target = "children", ignore = true)
+    @Mapping(target = "productCount", ignore = true)
+    @Mapping(target = "activeProductCount", ignore = true)
+    @Mapping(target = "inStockProductCount", ignore = true)
+    CategoryResponse toResponse(Category category);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "parent", ignore = true)
+    @Mapping(target = "children", ignore = true)
+    @Mapping(target = "products", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Category toEntity(CategoryRequest request);
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.productservice.mapper;
+
+import com.ecommerce.productservice.document.ProductDocument;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.entity.Product;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Compile-time generated mapping from products and search documents to the API response.
+ * Specification fields are flattened onto the response.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ProductMapper {
+
+    @Mapping(target = ".", source = "specification")
+    @Mapping(target = "categoryName", source = "category.name")
+    @Mapping(target = "score", ignore = true)
+    ProductResponse toResponse(Product product);
+
+    @Mapping(target = ".", source = "document.specification")
+    @Mapping(target = "id", source = "document.id")
+    @Mapping(target = "score", source = "score")
+    @Mapping(target = "availableQuantity", ignore = true)
+    @Mapping(target = "imageUrls", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    ProductResponse toResponse(ProductDocument document, Float score);
+}
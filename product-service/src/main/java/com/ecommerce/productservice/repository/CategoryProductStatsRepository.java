@@ -0,0 +1,38 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.CategoryProductStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategoryProductStatsRepository extends JpaRepository<CategoryProductStats, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO category_product_stats (category_id, product_count, active_count, in_stock_count) " +
+                   "VALUES (:categoryId, GREATEST(:products, 0), GREATEST(:active, 0), GREATEST(:inStock, 0)) " +
+                   "ON CONFLICT (category_id) DO UPDATE SET " +
+                   "product_count = GREATEST(category_product_stats.product_count + :products, 0), " +
+                   "active_count = GREATEST(category_product_stats.active_count + :active, 0), " +
+                   "in_stock_count = GREATEST(category_product_stats.in_stock_count + :inStock, 0)",
+           nativeQuery = true)
+    void applyDelta(@Param("categoryId") Long categoryId, @Param("products") long products,
+                    @Param("active") long active, @Param("inStock") long inStock);
+
+    @Modifying
+    @Query("DELETE FROM CategoryProductStats s WHERE s.categoryId = :categoryId")
+    void deleteByCategory(@Param("categoryId") Long categoryId);
+
+    // One statement so every category, including empty ones, is reset to the true counts
+    @Modifying
+    @Query(value = "INSERT INTO category_product_stats (category_id, product_count, active_count, in_stock_count) " +
+                   "SELECT c.id, COUNT(p.id), COUNT(p.id) FILTER (WHERE p.is_active), " +
+                   "COUNT(p.id) FILTER (WHERE p.stock_quantity > 0) " +
+                   "FROM categories c LEFT JOIN products p ON p.category_id = c.id GROUP BY c.id " +
+                   "ON CONFLICT (category_id) DO UPDATE SET product_count = EXCLUDED.product_count, " +
+                   "active_count = EXCLUDED.active_count, in_stock_count = EXCLUDED.in_stock_count",
+           nativeQuery = true)
+    int recalculateAll();
+}
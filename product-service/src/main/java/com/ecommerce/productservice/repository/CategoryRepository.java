@@ -3,6 +3,7 @@ package com.ecommerce.productservice.repository;
 import com.ecommerce.productservice.entity.Category;
 import com.ecommerce.productservice.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,6 +19,13 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByParentIsNull();
     
     List<Category> findByParentId(Long parentId);
+
+    long countByParentId(Long parentId);
+
+    // Bulk delete; skips the cascade that would load the products and children collections
+    @Modifying
+    @Query("DELETE FROM Category c WHERE c.id = :id")
+    int deleteCategoryById(@Param("id") Long id);
     
     boolean existsByName(String name);
     
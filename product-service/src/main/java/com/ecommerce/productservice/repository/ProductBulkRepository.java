@@ -0,0 +1,21 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.Product;
+
+import java.util.List;
+
+public interface ProductBulkRepository {
+
+    /**
+     * Insert new products with plain JDBC batches. Ids are drawn from the products id
+     * sequence in one round trip and assigned to the given entities, so the rows and their
+     * image rows can be written as batches instead of one IDENTITY insert per product.
+     * Only the category id of each product's category is used.
+     */
+    void insertAll(List<Product> products);
+
+    /**
+     * SKUs among the given ones that already exist.
+     */
+    List<String> findExistingSkus(List<String> skus);
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.entity.ProductSpecification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('products', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (id, name, description, price, stock_quantity, sku, category_id, is_active, " +
+            "created_at, updated_at, brand, model, color, size, weight, dimensions, material, warranty, " +
+            "country_of_origin, shipping_weight, manufacturer, care_instructions, included_components, " +
+            "recommended_age_range) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_IMAGE_SQL = "INSERT INTO product_images (product_id, image_url) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, products.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>(products.size());
+        List<Object[]> images = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            Long id = ids.get(i);
+            product.setId(id);
+            ProductSpecification spec = product.getSpecification() != null
+                    ? product.getSpecification() : new ProductSpecification();
+            rows.add(new Object[]{
+                    id, product.getName(), product.getDescription(), product.getPrice(),
+                    product.getStockQuantity(), product.getSku(),
+                    product.getCategory() != null ? product.getCategory().getId() : null,
+                    product.getIsActive(), now, now,
+                    spec.getBrand(), spec.getModel(), spec.getColor(), spec.getSize(), spec.getWeight(),
+                    spec.getDimensions(), spec.getMaterial(), spec.getWarranty(), spec.getCountryOfOrigin(),
+                    spec.getShippingWeight(), spec.getManufacturer(), spec.getCareInstructions(),
+                    spec.getIncludedComponents(), spec.getRecommendedAgeRange()
+            });
+            if (product.getImageUrls() != null) {
+                product.getImageUrls().forEach(url -> images.add(new Object[]{id, url}));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        if (!images.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, images);
+        }
+    }
+
+    @Override
+    public List<String> findExistingSkus(List<String> skus) {
+        if (skus.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(",", Collections.nCopies(skus.size(), "?"));
+        return jdbcTemplate.queryForList("SELECT sku FROM products WHERE sku IN (" + placeholders + ")",
+                String.class, skus.toArray());
+    }
+}
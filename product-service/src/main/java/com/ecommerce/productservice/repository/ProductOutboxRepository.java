@@ -0,0 +1,51 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.ProductOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductOutboxRepository extends JpaRepository<ProductOutboxEvent, Long> {
+
+    // SKIP LOCKED lets several replicas drain the outbox without handing out the same rows twice
+    @Query(value = "SELECT * FROM product_outbox WHERE relayed_at IS NULL AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ProductOutboxEvent> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE ProductOutboxEvent e SET e.relayedAt = :now WHERE e.id IN :ids")
+    int markRelayed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // One statement for a whole batch; the identity ids rule out Hibernate insert batching
+    @Modifying
+    @Query(value = "INSERT INTO product_outbox (product_id, event_type, attempts, next_attempt_at, created_at) " +
+                   "SELECT p.id, 'UPSERT', 0, :nextAttemptAt, :now FROM products p WHERE p.id IN (:productIds)",
+           nativeQuery = true)
+    int insertUpserts(@Param("productIds") Collection<Long> productIds,
+                      @Param("now") LocalDateTime now,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE ProductOutboxEvent e SET e.relayedAt = :now WHERE e.productId IN :productIds " +
+           "AND e.eventType = com.ecommerce.productservice.entity.ProductOutboxEvent$EventType.UPSERT " +
+           "AND e.relayedAt IS NULL")
+    int markUpsertsRelayed(@Param("productIds") Collection<Long> productIds, @Param("now") LocalDateTime now);
+
+    @Query("SELECT MIN(e.createdAt) FROM ProductOutboxEvent e WHERE e.relayedAt IS NULL")
+    LocalDateTime findOldestCreatedAt();
+
+    // Products with an index change recorded since the given time, whether or not it has been relayed yet
+    @Query("SELECT DISTINCT e.productId FROM ProductOutboxEvent e WHERE e.createdAt >= :since")
+    List<Long> findProductIdsChangedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM ProductOutboxEvent e WHERE e.relayedAt < :before")
+    int deleteRelayedBefore(@Param("before") LocalDateTime before);
+}
@@ -3,6 +3,7 @@ package com.ecommerce.productservice.repository;
 import com.ecommerce.productservice.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -10,11 +11,13 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductStockRepository, ProductBulkRepository {
     
     Optional<Product> findBySku(String sku);
     
@@ -23,7 +26,13 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId")
     Page<Product> findByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "category")
     List<Product> findByCategoryIdIn(List<Long> categoryIds);
+
+    // Single product reads join both associations the response needs
+    @Override
+    @EntityGraph(attributePaths = {"category", "imageUrls"})
+    Optional<Product> findById(Long id);
     
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
            "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))")
@@ -45,6 +54,41 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT DISTINCT p.specification.brand FROM Product p WHERE p.specification.brand IS NOT NULL")
     List<String> findAllBrands();
     
+    // List reads join the category; image collections are batch-fetched (hibernate.default_batch_fetch_size)
+    // because joining a collection would multiply rows and break LIMIT
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.id IN :productIds")
     List<Product> findByIds(@Param("productIds") List<Long> productIds);
+
+    // Keyset page: rows strictly after the given id, in id order
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Keyset page bounded to one id-range slice, used by the parallel reindex
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId AND p.id <= :toId ORDER BY p.id")
+    List<Product> findSliceAfter(@Param("afterId") Long afterId, @Param("toId") Long toId, Pageable pageable);
+
+    @Query("SELECT MIN(p.id) FROM Product p")
+    Long findMinId();
+
+    @Query("SELECT MAX(p.id) FROM Product p")
+    Long findMaxId();
+
+    @Query("SELECT p.updatedAt AS updatedAt, p.stockQuantity AS stockQuantity, " +
+           "p.reservedQuantity AS reservedQuantity, c.name AS categoryName " +
+           "FROM Product p LEFT JOIN p.category c WHERE p.id = :id")
+    Optional<ProductVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT p.id AS id, c.id AS categoryId, p.stockQuantity AS stockQuantity, " +
+           "p.reservedQuantity AS reservedQuantity FROM Product p LEFT JOIN p.category c WHERE p.id IN :productIds")
+    List<ProductStockLevel> findStockLevels(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT p.id FROM Product p WHERE p.stripeCount > 0")
+    List<Long> findStripedIds();
+
+    @Query("SELECT p.id FROM Product p WHERE p.id > :afterId")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId);
+
 }
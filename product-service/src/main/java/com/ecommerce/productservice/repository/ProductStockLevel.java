@@ -0,0 +1,11 @@
+package com.ecommerce.productservice.repository;
+
+/**
+ * Stock columns of a product row, read back after a JDBC stock update.
+ */
+public interface ProductStockLevel {
+    Long getId();
+    Long getCategoryId();
+    Integer getStockQuantity();
+    Integer getReservedQuantity();
+}
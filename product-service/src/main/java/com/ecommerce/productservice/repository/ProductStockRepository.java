@@ -0,0 +1,62 @@
+package com.ecommerce.productservice.repository;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Stock mutations issued as plain JDBC. Products flagged for striping keep their available
+ * units in product_stock_stripes instead of the product row; every method routes those
+ * products to their stripes transparently, and the product row only receives the
+ * aggregate through {@link #rebalanceStripes(Long)}.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Conditionally decrement stock for every product in a single JDBC batch.
+     * A row is only updated when it still has at least the requested quantity available
+     * beyond what reservations hold, so concurrent callers can never oversell.
+     *
+     * @param quantities product id to quantity, iterated in id order to keep lock order stable
+     * @return product id to whether its decrement was applied
+     */
+    Map<Long, Boolean> decrementStock(SortedMap<Long, Integer> quantities);
+
+    /**
+     * Conditionally hold stock for every product in a single JDBC batch. A row is only
+     * updated when its available quantity (on hand minus held) covers the request.
+     *
+     * @return product id to whether its hold was applied
+     */
+    Map<Long, Boolean> reserveStock(SortedMap<Long, Integer> quantities);
+
+    /**
+     * Turn held units into a sale: both on-hand and held quantities drop by the same amount.
+     */
+    void commitReserved(SortedMap<Long, Integer> quantities);
+
+    /**
+     * Return held units to the available pool.
+     */
+    void releaseReserved(SortedMap<Long, Integer> quantities);
+
+    /**
+     * Split the product's available stock across the given number of stripes, resize an
+     * existing split, or fold the stripes back into the product row when the count is 0.
+     * On-hand stock is preserved.
+     */
+    void stripeStock(Long productId, int stripeCount);
+
+    /**
+     * Redistribute a striped product's stripes after its on-hand stock on the product row
+     * was overwritten, e.g. by an admin update.
+     */
+    void restockStripes(Long productId);
+
+    /**
+     * Even out the stripes that are not currently locked by a checkout and fold the stripe
+     * total into the product row.
+     *
+     * @return whether the product row changed
+     */
+    boolean rebalanceStripes(Long productId);
+}
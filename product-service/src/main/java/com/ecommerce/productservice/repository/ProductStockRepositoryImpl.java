@@ -0,0 +1,293 @@
+package com.ecommerce.productservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND stock_quantity - reserved_quantity >= ? AND stripe_count = 0";
+
+    private static final String RESERVE_SQL =
+            "UPDATE products SET reserved_quantity = reserved_quantity + ? " +
+            "WHERE id = ? AND stock_quantity - reserved_quantity >= ? AND stripe_count = 0";
+
+    private static final String COMMIT_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, reserved_quantity = reserved_quantity - ?, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    // GREATEST guards against a hold that was already returned by a manual correction
+    private static final String RELEASE_SQL =
+            "UPDATE products SET reserved_quantity = GREATEST(reserved_quantity - ?, 0) WHERE id = ?";
+
+    private static final String STRIPE_TAKE_SQL =
+            "UPDATE product_stock_stripes SET quantity = quantity - ? " +
+            "WHERE product_id = ? AND stripe = ? AND quantity >= ?";
+
+    private static final String STRIPE_ADD_SQL =
+            "UPDATE product_stock_stripes SET quantity = quantity + ? WHERE product_id = ? AND stripe = ?";
+
+    private static final String STRIPE_SET_SQL =
+            "INSERT INTO product_stock_stripes (product_id, stripe, quantity) VALUES (?, ?, ?) " +
+            "ON CONFLICT (product_id, stripe) DO UPDATE SET quantity = EXCLUDED.quantity";
+
+    private static final String LOCK_STRIPES_SQL =
+            "SELECT stripe, quantity FROM product_stock_stripes WHERE product_id = ? ORDER BY stripe FOR UPDATE";
+
+    private static final String LOCK_IDLE_STRIPES_SQL =
+            "SELECT stripe, quantity FROM product_stock_stripes WHERE product_id = ? ORDER BY stripe " +
+            "FOR UPDATE SKIP LOCKED";
+
+    // One short-stripe fallback per product at a time, so two of them cannot each skip-lock
+    // half of the stripes and then wait for the other half
+    private static final String STRIPE_FALLBACK_LOCK_SQL =
+            "SELECT pg_advisory_xact_lock(hashtext('product_stock_stripes'), CAST(? % 2147483648 AS integer))";
+
+    // KEY SHARE holds stripe_count steady until commit: stripeStock and restockStripes lock the
+    // row FOR UPDATE and wait, while other checkouts' stock updates of the row do not conflict
+    private static final String STRIPE_COUNTS_SQL =
+            "SELECT id, stripe_count FROM products WHERE id IN (%s) ORDER BY id FOR KEY SHARE";
+
+    private static final String HELD_SQL =
+            "SELECT COALESCE(SUM(quantity), 0) FROM stock_reservations WHERE product_id = ? AND status = 'HELD'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Spreads consecutive checkouts of the same product over its stripes
+    private final AtomicInteger stripeCursor = new AtomicInteger();
+
+    @Override
+    public Map<Long, Boolean> decrementStock(SortedMap<Long, Integer> quantities) {
+        return takeStock(DECREMENT_SQL, quantities);
+    }
+
+    @Override
+    public Map<Long, Boolean> reserveStock(SortedMap<Long, Integer> quantities) {
+        // Striped holds leave the stripes right away and are tracked by the reservation ledger
+        return takeStock(RESERVE_SQL, quantities);
+    }
+
+    @Override
+    public void commitReserved(SortedMap<Long, Integer> quantities) {
+        // Striped holds already left the stripes; the rebalancer folds the sale into the product row
+        SortedMap<Long, Integer> plain = new TreeMap<>(quantities);
+        plain.keySet().removeAll(stripeCounts(quantities).keySet());
+
+        List<Object[]> batchArgs = new ArrayList<>(plain.size());
+        plain.forEach((productId, quantity) -> batchArgs.add(new Object[]{quantity, quantity, productId}));
+        jdbcTemplate.batchUpdate(COMMIT_SQL, batchArgs);
+    }
+
+    @Override
+    public void releaseReserved(SortedMap<Long, Integer> quantities) {
+        Map<Long, Integer> striped = stripeCounts(quantities);
+        List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            Integer stripeCount = striped.get(productId);
+            if (stripeCount != null) {
+                jdbcTemplate.update(STRIPE_ADD_SQL, quantity, productId, nextStripe(stripeCount));
+            } else {
+                batchArgs.add(new Object[]{quantity, productId});
+            }
+        });
+        jdbcTemplate.batchUpdate(RELEASE_SQL, batchArgs);
+    }
+
+    @Override
+    public void stripeStock(Long productId, int stripeCount) {
+        Map<String, Object> product = jdbcTemplate.queryForMap(
+                "SELECT stock_quantity, reserved_quantity, stripe_count FROM products WHERE id = ? FOR UPDATE",
+                productId);
+        int currentCount = ((Number) product.get("stripe_count")).intValue();
+        int held = held(productId);
+        int available;
+        if (currentCount > 0) {
+            available = lockStripes(productId).values().stream().mapToInt(Integer::intValue).sum();
+        } else {
+            available = ((Number) product.get("stock_quantity")).intValue()
+                    - ((Number) product.get("reserved_quantity")).intValue();
+        }
+
+        if (stripeCount > 0) {
+            writeStripes(productId, stripeCount, Math.max(0, available));
+        } else {
+            jdbcTemplate.update("DELETE FROM product_stock_stripes WHERE product_id = ?", productId);
+        }
+        jdbcTemplate.update("UPDATE products SET stripe_count = ?, stock_quantity = ?, reserved_quantity = ?, " +
+                "updated_at = CURRENT_TIMESTAMP WHERE id = ?", stripeCount, available + held, held, productId);
+    }
+
+    @Override
+    public void restockStripes(Long productId) {
+        Map<String, Object> product = jdbcTemplate.queryForMap(
+                "SELECT stock_quantity, stripe_count FROM products WHERE id = ? FOR UPDATE", productId);
+        int stripeCount = ((Number) product.get("stripe_count")).intValue();
+        if (stripeCount == 0) {
+            return;
+        }
+        int held = held(productId);
+        int onHand = ((Number) product.get("stock_quantity")).intValue();
+        lockStripes(productId);
+        writeStripes(productId, stripeCount, Math.max(0, onHand - held));
+        jdbcTemplate.update("UPDATE products SET reserved_quantity = ? WHERE id = ?", held, productId);
+    }
+
+    @Override
+    public boolean rebalanceStripes(Long productId) {
+        // Stripes busy with a checkout are skipped rather than waited for
+        Map<Integer, Integer> idle = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT stripe, quantity FROM product_stock_stripes WHERE product_id = ? ORDER BY stripe " +
+                "FOR UPDATE SKIP LOCKED",
+                rs -> { idle.put(rs.getInt("stripe"), rs.getInt("quantity")); }, productId);
+        if (idle.size() > 1) {
+            int min = Collections.min(idle.values());
+            int max = Collections.max(idle.values());
+            if (max - min > 1) {
+                int total = idle.values().stream().mapToInt(Integer::intValue).sum();
+                int share = total / idle.size();
+                int remainder = total % idle.size();
+                List<Object[]> batchArgs = new ArrayList<>(idle.size());
+                for (Integer stripe : idle.keySet()) {
+                    int quantity = share + (remainder-- > 0 ? 1 : 0);
+                    batchArgs.add(new Object[]{quantity, productId, stripe});
+                }
+                jdbcTemplate.batchUpdate(
+                        "UPDATE product_stock_stripes SET quantity = ? WHERE product_id = ? AND stripe = ?", batchArgs);
+            }
+        }
+
+        Integer available = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM product_stock_stripes WHERE product_id = ?",
+                Integer.class, productId);
+        int held = held(productId);
+        int onHand = (available != null ? available : 0) + held;
+        return jdbcTemplate.update("UPDATE products SET stock_quantity = ?, reserved_quantity = ?, " +
+                "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND stripe_count > 0 " +
+                "AND (stock_quantity <> ? OR reserved_quantity <> ?)",
+                onHand, held, productId, onHand, held) > 0;
+    }
+
+    private Map<Long, Boolean> takeStock(String plainSql, SortedMap<Long, Integer> quantities) {
+        Map<Long, Integer> striped = stripeCounts(quantities);
+
+        List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+        List<Long> plainIds = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            if (!striped.containsKey(productId)) {
+                batchArgs.add(new Object[]{quantity, productId, quantity});
+                plainIds.add(productId);
+            }
+        });
+        int[] updateCounts = batchArgs.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(plainSql, batchArgs);
+
+        Map<Long, Boolean> plainResults = new HashMap<>();
+        for (int i = 0; i < plainIds.size(); i++) {
+            plainResults.put(plainIds.get(i), updateCounts[i] > 0);
+        }
+
+        Map<Long, Boolean> results = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            Integer stripeCount = striped.get(productId);
+            results.put(productId, stripeCount != null
+                    ? takeFromStripes(productId, stripeCount, quantity)
+                    : plainResults.get(productId));
+        });
+        return results;
+    }
+
+    /**
+     * Common case touches a single stripe row. A short stripe falls back to the stripes no other
+     * checkout is using, and only if those are short too waits once for all of them.
+     */
+    private boolean takeFromStripes(Long productId, int stripeCount, int quantity) {
+        if (jdbcTemplate.update(STRIPE_TAKE_SQL, quantity, productId, nextStripe(stripeCount), quantity) > 0) {
+            return true;
+        }
+
+        jdbcTemplate.query(STRIPE_FALLBACK_LOCK_SQL, rs -> { }, productId);
+        Map<Integer, Integer> stripes = lockStripes(LOCK_IDLE_STRIPES_SQL, productId);
+        int total = stripes.values().stream().mapToInt(Integer::intValue).sum();
+        if (total < quantity) {
+            stripes = lockStripes(LOCK_STRIPES_SQL, productId);
+            total = stripes.values().stream().mapToInt(Integer::intValue).sum();
+        }
+        if (total < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> stripe : stripes.entrySet()) {
+            if (remaining == 0) {
+                break;
+            }
+            int take = Math.min(remaining, stripe.getValue());
+            if (take > 0) {
+                batchArgs.add(new Object[]{take, productId, stripe.getKey(), take});
+                remaining -= take;
+            }
+        }
+        jdbcTemplate.batchUpdate(STRIPE_TAKE_SQL, batchArgs);
+        return true;
+    }
+
+    private Map<Long, Integer> stripeCounts(SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String placeholders = String.join(",", Collections.nCopies(quantities.size(), "?"));
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(String.format(STRIPE_COUNTS_SQL, placeholders),
+                rs -> {
+                    int stripeCount = rs.getInt("stripe_count");
+                    if (stripeCount > 0) {
+                        counts.put(rs.getLong("id"), stripeCount);
+                    }
+                },
+                quantities.keySet().toArray());
+        return counts;
+    }
+
+    private Map<Integer, Integer> lockStripes(Long productId) {
+        return lockStripes(LOCK_STRIPES_SQL, productId);
+    }
+
+    private Map<Integer, Integer> lockStripes(String sql, Long productId) {
+        Map<Integer, Integer> stripes = new LinkedHashMap<>();
+        jdbcTemplate.query(sql,
+                rs -> { stripes.put(rs.getInt("stripe"), rs.getInt("quantity")); }, productId);
+        return stripes;
+    }
+
+    private void writeStripes(Long productId, int stripeCount, int available) {
+        List<Object[]> batchArgs = new ArrayList<>(stripeCount);
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            int quantity = available / stripeCount + (stripe < available % stripeCount ? 1 : 0);
+            batchArgs.add(new Object[]{productId, stripe, quantity});
+        }
+        jdbcTemplate.batchUpdate(STRIPE_SET_SQL, batchArgs);
+        jdbcTemplate.update("DELETE FROM product_stock_stripes WHERE product_id = ? AND stripe >= ?",
+                productId, stripeCount);
+    }
+
+    private int held(Long productId) {
+        Integer held = jdbcTemplate.queryForObject(HELD_SQL, Integer.class, productId);
+        return held != null ? held : 0;
+    }
+
+    private int nextStripe(int stripeCount) {
+        return Math.floorMod(stripeCursor.getAndIncrement(), stripeCount);
+    }
+}
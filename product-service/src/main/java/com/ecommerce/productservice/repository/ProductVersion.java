@@ -0,0 +1,13 @@
+package com.ecommerce.productservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns a product's ETag is derived from, read without loading the entity.
+ */
+public interface ProductVersion {
+    LocalDateTime getUpdatedAt();
+    Integer getStockQuantity();
+    Integer getReservedQuantity();
+    String getCategoryName();
+}
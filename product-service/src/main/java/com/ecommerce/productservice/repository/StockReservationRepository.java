@@ -0,0 +1,34 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByOrderId(Long orderId);
+
+    // Transaction-scoped lock on the order id, so retries of the same reservation run one at a time
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtext('stock_reservations'), " +
+                   "CAST(:orderId % 2147483648 AS integer))) AS l", nativeQuery = true)
+    Integer lockOrder(@Param("orderId") long orderId);
+
+    // Row locks serialize commit, release and the sweeper for the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.orderId = :orderId AND r.status = :status ORDER BY r.productId")
+    List<StockReservation> lockByOrderIdAndStatus(@Param("orderId") Long orderId,
+                                                  @Param("status") StockReservation.Status status);
+
+    // Served by the (status, expires_at) index; SKIP LOCKED lets replicas sweep side by side
+    @Query(value = "SELECT * FROM stock_reservations WHERE status = 'HELD' AND expires_at <= :now " +
+                   "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StockReservation> lockExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
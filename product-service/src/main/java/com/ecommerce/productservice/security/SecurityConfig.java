@@ -52,6 +52,8 @@ public class SecurityConfig {
                         "/swagger-ui.html",
                         "/api/products/decrement-stock/**"
                 ).permitAll()
+                // Stock holds are placed by order-service with its own service token, never by end users
+                .antMatchers("/api/products/reservations/**").hasAuthority("ROLE_SERVICE")
                 .anyRequest().authenticated()
                 .and()
                 .oauth2ResourceServer()
@@ -9,6 +9,8 @@ import java.util.List;
 public interface CategoryService {
     public List<CategoryResponse> getAllCategories();
     public CategoryResponse getCategoryById(Long id);
+    public String getAllCategoriesEtag();
+    public String getCategoryEtag(Long id);
     public CategoryResponse createCategory(@Valid CategoryRequest categoryRequest);
     public CategoryResponse updateCategory(Long id, @Valid CategoryRequest categoryRequest);
     public void deleteCategory(Long id);
@@ -0,0 +1,13 @@
+package com.ecommerce.productservice.service;
+
+public interface CategoryStatsService {
+    void productAdded(Long categoryId, boolean active, boolean inStock);
+    void productsAdded(Long categoryId, long products, long active, long inStock);
+    void productRemoved(Long categoryId, boolean active, boolean inStock);
+    void productChanged(Long previousCategoryId, boolean wasActive, boolean wasInStock,
+                        Long categoryId, boolean active, boolean inStock);
+    void stockChanged(Long categoryId, boolean wasInStock, boolean inStock);
+    long getProductCount(Long categoryId);
+    void categoryDeleted(Long categoryId);
+    void recalculate();
+}
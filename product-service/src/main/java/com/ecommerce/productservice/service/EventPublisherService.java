@@ -0,0 +1,11 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.event.ProductChangedEvent;
+
+import java.util.Collection;
+
+public interface EventPublisherService {
+    void publishProductInvalidation(Collection<Long> productIds);
+    void publishCategoryInvalidation(Long categoryId);
+    void publishProductChanges(Collection<ProductChangedEvent> events);
+}
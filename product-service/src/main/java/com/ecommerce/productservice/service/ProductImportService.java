@@ -0,0 +1,10 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductImportFormat;
+import com.ecommerce.productservice.dto.ProductImportResult;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportResult importProducts(InputStream input, ProductImportFormat format);
+}
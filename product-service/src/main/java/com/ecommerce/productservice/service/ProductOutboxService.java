@@ -0,0 +1,13 @@
+package com.ecommerce.productservice.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ProductOutboxService {
+    void enqueueIndex(Long productId);
+    void enqueueIndexAll(Collection<Long> productIds, LocalDateTime notBefore);
+    void markIndexed(Collection<Long> productIds);
+    void enqueueDelete(Long productId);
+    void relayPendingEvents();
+    void purgeRelayedEvents();
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ReindexStatus;
+import com.ecommerce.productservice.entity.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductReindexService {
+    ReindexStatus startReindex();
+    ReindexStatus getStatus();
+    void mirrorIndexed(List<Product> products);
+    void mirrorDeleted(Collection<Long> productIds);
+}
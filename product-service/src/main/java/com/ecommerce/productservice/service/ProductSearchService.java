@@ -1,16 +1,28 @@
 package com.ecommerce.productservice.service;
 
+import com.ecommerce.productservice.dto.FacetedSearchResponse;
+import com.ecommerce.productservice.dto.ProductCursorPage;
 import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSearchFilter;
 import com.ecommerce.productservice.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductSearchService {
     void indexProduct(Product savedProduct);
     void deleteProductFromIndex(Long id);
+    Map<Long, String> indexProducts(List<Product> products);
+    Map<Long, String> indexProducts(List<Product> products, String indexName);
+    void deleteProductsFromIndex(Collection<Long> ids);
+    void deleteProductsFromIndex(Collection<Long> ids, String indexName);
     Page<ProductResponse> searchProducts(String query, Pageable pageable);
     Page<ProductResponse> searchByCategory(Long categoryId, String query, Pageable pageable);
+    FacetedSearchResponse facetedSearch(ProductSearchFilter filter, Pageable pageable);
+    ProductCursorPage searchAfter(String query, Long categoryId, String cursor, int size);
     List<String> autocomplete(String query);
+    void clearMappingCache();
 }
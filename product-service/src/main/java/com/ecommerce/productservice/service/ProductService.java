@@ -1,23 +1,36 @@
 package com.ecommerce.productservice.service;
 
+import com.ecommerce.productservice.dto.FacetedSearchResponse;
+import com.ecommerce.productservice.dto.ProductCursorPage;
 import com.ecommerce.productservice.dto.ProductRequest;
 import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSearchFilter;
 import com.ecommerce.productservice.dto.StockReduceRequest;
+import com.ecommerce.productservice.dto.StockReduceResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import javax.validation.Valid;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ProductService {
-    List<ProductResponse> getAllProducts();
+    List<ProductResponse> getProductsAfter(Long afterId, int limit);
+    void streamAllProducts(Consumer<ProductResponse> consumer);
     ProductResponse getProductById(Long id);
+    String getProductEtag(Long id);
+    String getProductEtag(ProductResponse product);
+    Map<Long, ProductResponse> getProductsByIds(Collection<Long> ids);
     List<ProductResponse> getProductsByCategoryId(Long categoryId);
     ProductResponse createProduct(@Valid ProductRequest productRequest);
     ProductResponse updateProduct(Long id, @Valid ProductRequest productRequest);
     void deleteProduct(Long id);
     Page<ProductResponse> searchProductsByCategory(Long categoryId, String query, Pageable pageable);
     Page<ProductResponse> searchProducts(String query, Pageable pageable);
+    ProductCursorPage searchProductsAfter(String query, Long categoryId, String cursor, int size);
+    FacetedSearchResponse searchProductsFaceted(ProductSearchFilter filter, Pageable pageable);
     List<String> autocompleteSearch(String query);
-    void reduceStockBatch(List<StockReduceRequest> requests);
+    List<StockReduceResult> reduceStockBatch(List<StockReduceRequest> requests);
 }
@@ -0,0 +1,11 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.StockReservationRequest;
+import com.ecommerce.productservice.dto.StockReservationResult;
+
+public interface StockReservationService {
+    StockReservationResult reserve(StockReservationRequest request);
+    StockReservationResult commit(Long orderId);
+    void release(Long orderId);
+    void expireReservations();
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+
+public interface StripedStockService {
+    ProductResponse configureStripes(Long productId, int stripeCount);
+    void rebalance();
+}
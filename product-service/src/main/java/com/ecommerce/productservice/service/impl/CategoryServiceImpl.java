@@ -1,17 +1,22 @@
 package com.ecommerce.productservice.service.impl;
 
+import com.ecommerce.productservice.cache.CategoryHierarchyCache;
 import com.ecommerce.productservice.dto.CategoryRequest;
 import com.ecommerce.productservice.dto.CategoryResponse;
 import com.ecommerce.productservice.entity.Category;
 import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.mapper.CategoryMapper;
 import com.ecommerce.productservice.repository.CategoryRepository;
 import com.ecommerce.productservice.service.CategoryService;
+import com.ecommerce.productservice.service.CategoryStatsService;
+import com.ecommerce.productservice.service.EventPublisherService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,28 +27,39 @@ public class CategoryServiceImpl implements CategoryService {
     private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImpl.class);
 
     private final CategoryRepository categoryRepository;
-    private final ModelMapper modelMapper;
+    private final CategoryMapper categoryMapper;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+    private final EventPublisherService eventPublisherService;
+    private final CategoryStatsService categoryStatsService;
 
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
         logger.debug("Fetching all categories");
-        List<Category> categories = categoryRepository.findAll();
+        List<CategoryResponse> categories = categoryHierarchyCache.getAll();
         logger.info("Successfully retrieved {} categories", categories.size());
-        return categories.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return categories;
+    }
+
+    public String getAllCategoriesEtag() {
+        return categoryHierarchyCache.getAllEtag();
+    }
+
+    public String getCategoryEtag(Long id) {
+        String etag = categoryHierarchyCache.getEtag(id);
+        if (etag == null) {
+            throw new ResourceNotFoundException("Category not found with id: " + id);
+        }
+        return etag;
     }
 
-    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
         logger.debug("Fetching category with id: {}", id);
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("Category not found with id: {}", id);
-                    return new ResourceNotFoundException("Category not found with id: " + id);
-                });
+        CategoryResponse category = categoryHierarchyCache.get(id);
+        if (category == null) {
+            logger.warn("Category not found with id: {}", id);
+            throw new ResourceNotFoundException("Category not found with id: " + id);
+        }
         logger.debug("Successfully retrieved category: {}", category.getName());
-        return mapToDto(category);
+        return category;
     }
 
     @Transactional
@@ -56,7 +72,7 @@ public class CategoryServiceImpl implements CategoryService {
             throw new IllegalArgumentException("Category with name '" + categoryRequest.getName() + "' already exists");
         }
         
-        Category category = modelMapper.map(categoryRequest, Category.class);
+        Category category = categoryMapper.toEntity(categoryRequest);
         logger.debug("Mapped request to category entity");
 
         // Set parent category if parentId is provided
@@ -77,6 +93,7 @@ public class CategoryServiceImpl implements CategoryService {
         logger.debug("Saving category to database");
         Category savedCategory = categoryRepository.save(category);
         logger.info("Successfully created category with ID: {}", savedCategory.getId());
+        invalidateHierarchy(savedCategory.getId());
         
         return mapToDto(savedCategory);
     }
@@ -135,6 +152,7 @@ public class CategoryServiceImpl implements CategoryService {
         logger.debug("Saving updated category");
         Category updatedCategory = categoryRepository.save(category);
         logger.info("Successfully updated category with ID: {}", id);
+        invalidateHierarchy(id);
         
         return mapToDto(updatedCategory);
     }
@@ -151,34 +169,53 @@ public class CategoryServiceImpl implements CategoryService {
         
         logger.debug("Found category: {}", category.getName());
         
-        // Check if category has products
-        if (!category.getProducts().isEmpty()) {
+        // Single-row read of the summary table instead of loading the products collection
+        long productCount = categoryStatsService.getProductCount(id);
+        if (productCount > 0) {
             logger.warn("Cannot delete category '{}' as it has {} associated products", 
-                       category.getName(), category.getProducts().size());
-            throw new IllegalStateException("Cannot delete category with " + category.getProducts().size() + " associated products");
+                       category.getName(), productCount);
+            throw new IllegalStateException("Cannot delete category with " + productCount + " associated products");
         }
         
         // Check for child categories
-        if (!category.getChildren().isEmpty()) {
+        long childCount = categoryRepository.countByParentId(id);
+        if (childCount > 0) {
             logger.warn("Cannot delete category '{}' as it has {} child categories", 
-                       category.getName(), category.getChildren().size());
-            throw new IllegalStateException("Cannot delete category with " + category.getChildren().size() + " child categories");
+                       category.getName(), childCount);
+            throw new IllegalStateException("Cannot delete category with " + childCount + " child categories");
         }
         
+        // The products foreign key still rejects the delete if the summary has drifted
         logger.debug("Deleting category from database");
-        categoryRepository.delete(category);
+        categoryRepository.deleteCategoryById(id);
+        categoryStatsService.categoryDeleted(id);
         logger.info("Successfully deleted category with ID: {}", id);
+        invalidateHierarchy(id);
+    }
+
+    /**
+     * Rebuild this replica's hierarchy snapshot and tell the other replicas to do the same,
+     * once the surrounding transaction has committed.
+     */
+    private void invalidateHierarchy(Long categoryId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    categoryHierarchyCache.rebuild();
+                } catch (Exception e) {
+                    logger.error("Failed to rebuild category hierarchy after change to {}: {}",
+                            categoryId, e.getMessage(), e);
+                }
+                eventPublisherService.publishCategoryInvalidation(categoryId);
+            }
+        });
     }
 
     private CategoryResponse mapToDto(Category category) {
         logger.trace("Mapping category to DTO: {}", category.getName());
         
-        CategoryResponse response = modelMapper.map(category, CategoryResponse.class);
-        
-        if (category.getParent() != null) {
-            response.setParentId(category.getParent().getId());
-            logger.trace("Set parent ID to: {}", category.getParent().getId());
-        }
+        CategoryResponse response = categoryMapper.toResponse(category);
         
         // Map children recursively if needed
         if (category.getChildren() != null && !category.getChildren().isEmpty()) {
@@ -0,0 +1,88 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.entity.CategoryProductStats;
+import com.ecommerce.productservice.repository.CategoryProductStatsRepository;
+import com.ecommerce.productservice.service.CategoryStatsService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains category_product_stats. Writers report each product's category, active flag and
+ * whether it has stock before and after their change; only the resulting deltas are written,
+ * inside the writer's transaction, so the counts commit or roll back with the product.
+ * Stock only moves a counter when it crosses zero, which keeps checkouts off the summary row.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryStatsServiceImpl implements CategoryStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryStatsServiceImpl.class);
+
+    private final CategoryProductStatsRepository statsRepository;
+
+    @Transactional
+    public void productAdded(Long categoryId, boolean active, boolean inStock) {
+        apply(categoryId, 1, active ? 1 : 0, inStock ? 1 : 0);
+    }
+
+    @Transactional
+    public void productsAdded(Long categoryId, long products, long active, long inStock) {
+        apply(categoryId, products, active, inStock);
+    }
+
+    @Transactional
+    public void productRemoved(Long categoryId, boolean active, boolean inStock) {
+        apply(categoryId, -1, active ? -1 : 0, inStock ? -1 : 0);
+    }
+
+    @Transactional
+    public void productChanged(Long previousCategoryId, boolean wasActive, boolean wasInStock,
+                               Long categoryId, boolean active, boolean inStock) {
+        if (previousCategoryId != null && previousCategoryId.equals(categoryId)) {
+            apply(categoryId, 0, delta(wasActive, active), delta(wasInStock, inStock));
+        } else {
+            productRemoved(previousCategoryId, wasActive, wasInStock);
+            productAdded(categoryId, active, inStock);
+        }
+    }
+
+    @Transactional
+    public void stockChanged(Long categoryId, boolean wasInStock, boolean inStock) {
+        apply(categoryId, 0, 0, delta(wasInStock, inStock));
+    }
+
+    @Transactional(readOnly = true)
+    public long getProductCount(Long categoryId) {
+        return statsRepository.findById(categoryId).map(CategoryProductStats::getProductCount).orElse(0L);
+    }
+
+    @Transactional
+    public void categoryDeleted(Long categoryId) {
+        statsRepository.deleteByCategory(categoryId);
+    }
+
+    // Backfills the table after deployment and repairs any drift from writes outside the service
+    @Scheduled(initialDelayString = "${product.category-stats.reconcile-initial-delay-ms:30000}",
+            fixedDelayString = "${product.category-stats.reconcile-interval-ms:3600000}")
+    @Transactional
+    public void recalculate() {
+        long start = System.nanoTime();
+        int categories = statsRepository.recalculateAll();
+        logger.info("Reconciled product counts for {} categories in {} ms",
+                categories, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void apply(Long categoryId, long products, long active, long inStock) {
+        if (categoryId == null || (products == 0 && active == 0 && inStock == 0)) {
+            return;
+        }
+        statsRepository.applyDelta(categoryId, products, active, inStock);
+    }
+
+    private static long delta(boolean before, boolean after) {
+        return before == after ? 0 : (after ? 1 : -1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.dto.event.CategoryInvalidationEvent;
+import com.ecommerce.productservice.dto.event.ProductChangedEvent;
+import com.ecommerce.productservice.dto.event.ProductInvalidationEvent;
+import com.ecommerce.productservice.service.EventPublisherService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+@Service
+public class EventPublisherServiceImpl implements EventPublisherService {
+    private static final Logger logger = LoggerFactory.getLogger(EventPublisherServiceImpl.class);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String productInvalidationTopic;
+    private final String categoryInvalidationTopic;
+    private final String productChangedTopic;
+
+    public EventPublisherServiceImpl(
+            KafkaTemplate<String, Object> kafkaTemplate,
+            @Value("${kafka.topics.product-invalidation:product-invalidation-topic}") String productInvalidationTopic,
+            @Value("${kafka.topics.category-invalidation:category-invalidation-topic}") String categoryInvalidationTopic,
+            @Value("${kafka.topics.product-changed:product-changed-topic}") String productChangedTopic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.productInvalidationTopic = productInvalidationTopic;
+        this.categoryInvalidationTopic = categoryInvalidationTopic;
+        this.productChangedTopic = productChangedTopic;
+    }
+
+    public void publishProductInvalidation(Collection<Long> productIds) {
+        try {
+            kafkaTemplate.send(productInvalidationTopic, new ProductInvalidationEvent(new ArrayList<>(productIds)));
+        } catch (Exception e) {
+            // Replicas still converge through the cache TTL
+            logger.error("Failed to publish invalidation for products {}: {}", productIds, e.getMessage(), e);
+        }
+    }
+
+    public void publishCategoryInvalidation(Long categoryId) {
+        try {
+            kafkaTemplate.send(categoryInvalidationTopic, new CategoryInvalidationEvent(categoryId));
+        } catch (Exception e) {
+            logger.error("Failed to publish invalidation for category {}: {}", categoryId, e.getMessage(), e);
+        }
+    }
+
+    // Keyed by product id so every change to one product lands on the same partition, in order
+    public void publishProductChanges(Collection<ProductChangedEvent> events) {
+        for (ProductChangedEvent event : events) {
+            if (event.isEmpty()) {
+                continue;
+            }
+            try {
+                kafkaTemplate.send(productChangedTopic, String.valueOf(event.getProductId()), event);
+            } catch (Exception e) {
+                logger.error("Failed to publish change for product {}: {}", event.getProductId(), e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.cache.CategoryHierarchyCache;
+import com.ecommerce.productservice.cache.SearchResultCache;
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.dto.ProductImportError;
+import com.ecommerce.productservice.dto.ProductImportFormat;
+import com.ecommerce.productservice.dto.ProductImportResult;
+import com.ecommerce.productservice.dto.ProductRequest;
+import com.ecommerce.productservice.dto.event.ProductChangedEvent;
+import com.ecommerce.productservice.entity.Category;
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.entity.ProductSpecification;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.CategoryStatsService;
+import com.ecommerce.productservice.service.EventPublisherService;
+import com.ecommerce.productservice.service.ProductOutboxService;
+import com.ecommerce.productservice.service.ProductImportService;
+import com.ecommerce.productservice.service.ProductReindexService;
+import com.ecommerce.productservice.service.ProductSearchService;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import for supplier catalogs. Rows are parsed one at a time, validated
+ * against the same constraints as POST /api/products and resolved against the cached
+ * category tree, then written in JDBC batches with sequence-assigned ids. Bad rows are
+ * reported and skipped; search indexing happens once, in bulk, after the file is loaded.
+ * Each insert transaction also queues outbox events for its rows, so products committed by
+ * an import that dies before indexing still reach the index through the relay.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    private final ProductRepository productRepository;
+    private final ProductSearchService productSearchService;
+    private final ProductReindexService productReindexService;
+    private final ProductOutboxService productOutboxService;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+    private final SearchResultCache searchResultCache;
+    private final EventPublisherService eventPublisherService;
+    private final CategoryStatsService categoryStatsService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final Duration relayDelay;
+
+    public ProductImportServiceImpl(
+            ProductRepository productRepository,
+            ProductSearchService productSearchService,
+            ProductReindexService productReindexService,
+            ProductOutboxService productOutboxService,
+            CategoryHierarchyCache categoryHierarchyCache,
+            SearchResultCache searchResultCache,
+            EventPublisherService eventPublisherService,
+            CategoryStatsService categoryStatsService,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${product.import.batch-size:500}") int batchSize,
+            @Value("${product.import.max-reported-errors:1000}") int maxReportedErrors,
+            @Value("${product.import.relay-delay-seconds:300}") long relayDelaySeconds) {
+        this.productRepository = productRepository;
+        this.productSearchService = productSearchService;
+        this.productReindexService = productReindexService;
+        this.productOutboxService = productOutboxService;
+        this.categoryHierarchyCache = categoryHierarchyCache;
+        this.searchResultCache = searchResultCache;
+        this.eventPublisherService = eventPublisherService;
+        this.categoryStatsService = categoryStatsService;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.relayDelay = Duration.ofSeconds(relayDelaySeconds);
+
+        this.ndjsonReader = objectMapper.readerFor(ProductRequest.class);
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.enable(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        csvMapper.enable(CsvParser.Feature.TRIM_SPACES);
+        csvMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        // Columns come from the header row; image URLs are separated by ';' within their cell
+        this.csvReader = csvMapper.readerFor(ProductRequest.class)
+                .with(CsvSchema.emptySchema().withHeader().withArrayElementSeparator(";"));
+    }
+
+    public ProductImportResult importProducts(InputStream input, ProductImportFormat format) {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun(categoryIdsByName());
+
+        ObjectReader reader = format == ProductImportFormat.CSV ? csvReader : ndjsonReader;
+        try (MappingIterator<ProductRequest> rows = reader.readValues(input)) {
+            JsonLocation lastFailure = null;
+            while (true) {
+                ProductRequest request;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    request = rows.nextValue();
+                } catch (JsonParseException e) {
+                    // Malformed input cannot be resynchronized; keep what was loaded so far
+                    run.reject(null, "Unreadable input, import stopped: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    JsonLocation location = rows.getCurrentLocation();
+                    if (location != null && location.equals(lastFailure)) {
+                        break;
+                    }
+                    lastFailure = location;
+                    run.reject(null, "Invalid row: " + e.getOriginalMessage());
+                    continue;
+                }
+                run.accept(request);
+                if (run.pending.size() >= batchSize) {
+                    flush(run);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read product import", e);
+        }
+        flush(run);
+
+        long indexFailures = indexImported(run.importedIds);
+        long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = run.imported * 1000.0 / durationMs;
+        logger.info("Imported {} of {} products in {} ms ({} rows/s), {} rejected, {} queued for reindex",
+                run.imported, run.rowNumber, durationMs, String.format("%.1f", rowsPerSecond),
+                run.failed, indexFailures);
+
+        return ProductImportResult.builder()
+                .totalRows(run.rowNumber)
+                .imported(run.imported)
+                .failed(run.failed)
+                .indexFailures(indexFailures)
+                .errors(run.errors)
+                .durationMs(durationMs)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    private Map<String, Long> categoryIdsByName() {
+        Map<String, Long> ids = new HashMap<>();
+        for (CategoryResponse category : categoryHierarchyCache.getAll()) {
+            ids.put(category.getName(), category.getId());
+        }
+        return ids;
+    }
+
+    private void flush(ImportRun run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        List<ImportRow> batch = new ArrayList<>(run.pending);
+        run.pending.clear();
+
+        Set<String> existing = new HashSet<>(productRepository.findExistingSkus(
+                batch.stream().map(row -> row.product.getSku()).collect(Collectors.toList())));
+        List<ImportRow> fresh = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            if (existing.contains(row.product.getSku())) {
+                run.reject(row.rowNumber, row.product.getSku(), "A product with this SKU already exists");
+            } else {
+                fresh.add(row);
+            }
+        }
+
+        try {
+            insert(fresh);
+            fresh.forEach(row -> run.loaded(row.product.getId()));
+        } catch (Exception e) {
+            // Isolate the offending rows so one bad row does not cost the rest of the batch
+            logger.warn("Batch insert of {} products failed, retrying row by row: {}", fresh.size(), e.getMessage());
+            for (ImportRow row : fresh) {
+                try {
+                    insert(List.of(row));
+                    run.loaded(row.product.getId());
+                } catch (Exception rowError) {
+                    row.product.setId(null);
+                    run.reject(row.rowNumber, row.product.getSku(), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<ImportRow> rows) {
+        List<Product> products = rows.stream().map(row -> row.product).collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.insertAll(products);
+            productOutboxService.enqueueIndexAll(products.stream().map(Product::getId).collect(Collectors.toList()),
+                    LocalDateTime.now().plus(relayDelay));
+            // One summary upsert per category in the batch rather than one per row
+            Map<Long, long[]> added = new HashMap<>();
+            for (Product product : products) {
+                if (product.getCategory() != null) {
+                    long[] counts = added.computeIfAbsent(product.getCategory().getId(), id -> new long[2]);
+                    counts[0]++;
+                    counts[1] += product.getStockQuantity() > 0 ? 1 : 0;
+                }
+            }
+            added.forEach((categoryId, counts) ->
+                    categoryStatsService.productsAdded(categoryId, counts[0], counts[0], counts[1]));
+        });
+    }
+
+    /**
+     * Index the imported products in bulk and mark their queued outbox events as relayed.
+     * Anything that does not make it into the index now is left to the outbox relay.
+     */
+    private long indexImported(List<Long> productIds) {
+        long failures = 0;
+        for (int from = 0; from < productIds.size(); from += batchSize) {
+            List<Long> ids = productIds.subList(from, Math.min(from + batchSize, productIds.size()));
+            Integer failed = transactionTemplate.execute(status -> {
+                productOutboxService.markIndexed(ids);
+                List<Product> products = productRepository.findByIds(ids);
+                Map<Long, String> errors;
+                try {
+                    errors = productSearchService.indexProducts(products);
+                    productReindexService.mirrorIndexed(products);
+                } catch (Exception e) {
+                    logger.warn("Bulk indexing of {} imported products failed: {}", products.size(), e.getMessage());
+                    errors = products.stream().collect(Collectors.toMap(Product::getId, p -> String.valueOf(e.getMessage())));
+                }
+                errors.keySet().forEach(productOutboxService::enqueueIndex);
+                eventPublisherService.publishProductChanges(products.stream()
+                        .map(ProductChangedEvent::of)
+                        .collect(Collectors.toList()));
+                return errors.size();
+            });
+            failures += failed != null ? failed : 0;
+        }
+        if (!productIds.isEmpty()) {
+            searchResultCache.invalidateAll();
+        }
+        return failures;
+    }
+
+    private final class ImportRun {
+        final Map<String, Long> categoryIds;
+        final Set<String> seenSkus = new HashSet<>();
+        final List<ImportRow> pending = new ArrayList<>();
+        final List<Long> importedIds = new ArrayList<>();
+        final List<ProductImportError> errors = new ArrayList<>();
+        long rowNumber;
+        long imported;
+        long failed;
+
+        ImportRun(Map<String, Long> categoryIds) {
+            this.categoryIds = categoryIds;
+        }
+
+        void accept(ProductRequest request) {
+            rowNumber++;
+            if (request == null) {
+                reject(rowNumber, null, "Empty row");
+                return;
+            }
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(rowNumber, request.getSku(), violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            Long categoryId = null;
+            if (request.getCategoryName() != null && !request.getCategoryName().isBlank()) {
+                categoryId = categoryIds.get(request.getCategoryName());
+                if (categoryId == null) {
+                    reject(rowNumber, request.getSku(), "Category not found with name: " + request.getCategoryName());
+                    return;
+                }
+            }
+            if (!seenSkus.add(request.getSku())) {
+                reject(rowNumber, request.getSku(), "Duplicate SKU earlier in the file");
+                return;
+            }
+            pending.add(new ImportRow(rowNumber, toProduct(request, categoryId)));
+        }
+
+        void reject(String sku, String message) {
+            rowNumber++;
+            reject(rowNumber, sku, message);
+        }
+
+        void reject(long row, String sku, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportError(row, sku, message));
+            }
+        }
+
+        void loaded(Long productId) {
+            imported++;
+            importedIds.add(productId);
+        }
+    }
+
+    private static Product toProduct(ProductRequest request, Long categoryId) {
+        Product product = new Product();
+        product.setName(request.getName());
+        product.setDescription(request.getDescription());
+        product.setPrice(request.getPrice());
+        product.setStockQuantity(request.getStockQuantity() != null ? request.getStockQuantity() : 0);
+        product.setSku(request.getSku());
+        product.setImageUrls(request.getImageUrls());
+        product.setIsActive(true);
+        if (categoryId != null) {
+            // Only the id is written; a detached stub avoids loading the category
+            Category category = new Category();
+            category.setId(categoryId);
+            product.setCategory(category);
+        }
+
+        ProductSpecification specification = new ProductSpecification();
+        specification.setBrand(request.getBrand());
+        specification.setModel(request.getModel());
+        specification.setColor(request.getColor());
+        specification.setSize(request.getSize());
+        specification.setWeight(request.getWeight());
+        specification.setDimensions(request.getDimensions());
+        specification.setMaterial(request.getMaterial());
+        specification.setWarranty(request.getWarranty());
+        specification.setCountryOfOrigin(request.getCountryOfOrigin());
+        specification.setShippingWeight(request.getShippingWeight());
+        specification.setManufacturer(request.getManufacturer());
+        specification.setCareInstructions(request.getCareInstructions());
+        specification.setIncludedComponents(request.getIncludedComponents());
+        specification.setRecommendedAgeRange(request.getRecommendedAgeRange());
+        product.setSpecification(specification);
+        return product;
+    }
+
+    private static final class ImportRow {
+        final long rowNumber;
+        final Product product;
+
+        ImportRow(long rowNumber, Product product) {
+            this.rowNumber = rowNumber;
+            this.product = product;
+        }
+    }
+}
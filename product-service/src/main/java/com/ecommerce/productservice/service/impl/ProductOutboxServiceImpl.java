@@ -0,0 +1,217 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.cache.SearchResultCache;
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.entity.ProductOutboxEvent;
+import com.ecommerce.productservice.repository.ProductOutboxRepository;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.ProductOutboxService;
+import com.ecommerce.productservice.service.ProductReindexService;
+import com.ecommerce.productservice.service.ProductSearchService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for the product search index. Writers record what changed in the
+ * same transaction as the product row; a scheduled relay drains the outbox in batches
+ * through the Elasticsearch bulk API and retries failures with exponential backoff.
+ * Relayed events are marked rather than deleted and purged after a retention period, so
+ * the outbox doubles as a log of index changes made on any replica; a reindex catches up
+ * from it (see ProductReindexServiceImpl).
+ */
+@Service
+public class ProductOutboxServiceImpl implements ProductOutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductOutboxServiceImpl.class);
+
+    private final ProductOutboxRepository outboxRepository;
+    private final ProductRepository productRepository;
+    private final ProductSearchService productSearchService;
+    private final ProductReindexService productReindexService;
+    private final SearchResultCache searchResultCache;
+    private final int batchSize;
+    private final long maxBackoffSeconds;
+    private final Duration retention;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter indexedCounter;
+    private final Counter failedCounter;
+
+    public ProductOutboxServiceImpl(
+            ProductOutboxRepository outboxRepository,
+            ProductRepository productRepository,
+            ProductSearchService productSearchService,
+            ProductReindexService productReindexService,
+            SearchResultCache searchResultCache,
+            MeterRegistry meterRegistry,
+            @Value("${product.outbox.batch-size:500}") int batchSize,
+            @Value("${product.outbox.max-backoff-seconds:300}") long maxBackoffSeconds,
+            @Value("${product.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxRepository = outboxRepository;
+        this.productRepository = productRepository;
+        this.productSearchService = productSearchService;
+        this.productReindexService = productReindexService;
+        this.searchResultCache = searchResultCache;
+        this.batchSize = batchSize;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.retention = Duration.ofHours(retentionHours);
+
+        Gauge.builder("product.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest product change not yet applied to the search index")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.indexedCounter = Counter.builder("product.outbox.relayed")
+                .description("Outbox events applied to the search index")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("product.outbox.failed")
+                .description("Outbox events that failed and were rescheduled")
+                .register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueIndex(Long productId) {
+        enqueue(productId, ProductOutboxEvent.EventType.UPSERT);
+    }
+
+    /**
+     * Queue index updates for a batch of products in one statement. The relay leaves them
+     * alone until notBefore, giving a caller that indexes the batch itself the time to do so
+     * and mark them with {@link #markIndexed}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueIndexAll(Collection<Long> productIds, LocalDateTime notBefore) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        int queued = outboxRepository.insertUpserts(productIds, LocalDateTime.now(), notBefore);
+        logger.debug("Queued {} UPSERT outbox events", queued);
+    }
+
+    /**
+     * Mark pending index updates for these products as relayed, for a caller that indexes
+     * them itself. Call this before reading the products: a change committed after the read
+     * then keeps its own pending event.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markIndexed(Collection<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            outboxRepository.markUpsertsRelayed(productIds, LocalDateTime.now());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueDelete(Long productId) {
+        enqueue(productId, ProductOutboxEvent.EventType.DELETE);
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.poll-interval-ms:500}")
+    @Transactional
+    public void relayPendingEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductOutboxEvent> batch = outboxRepository.lockNextBatch(now, batchSize);
+        if (!batch.isEmpty()) {
+            relay(batch, now);
+        }
+        updateLag(now);
+    }
+
+    // Retention has to outlast the longest reindex, which catches up from these rows
+    @Scheduled(fixedDelayString = "${product.outbox.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeRelayedEvents() {
+        int purged = outboxRepository.deleteRelayedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.debug("Purged {} relayed outbox events", purged);
+        }
+    }
+
+    private void enqueue(Long productId, ProductOutboxEvent.EventType type) {
+        ProductOutboxEvent event = new ProductOutboxEvent();
+        event.setProductId(productId);
+        event.setEventType(type);
+        outboxRepository.save(event);
+        logger.debug("Queued {} outbox event for product {}", type, productId);
+    }
+
+    private void relay(List<ProductOutboxEvent> batch, LocalDateTime now) {
+        // Rows come back in id order, so the last event seen for a product is the one that counts
+        Map<Long, ProductOutboxEvent.EventType> latest = new LinkedHashMap<>();
+        batch.forEach(event -> latest.put(event.getProductId(), event.getEventType()));
+
+        List<Long> upsertIds = new ArrayList<>();
+        List<Long> deleteIds = new ArrayList<>();
+        latest.forEach((productId, type) ->
+                (type == ProductOutboxEvent.EventType.UPSERT ? upsertIds : deleteIds).add(productId));
+
+        Map<Long, String> failures = new HashMap<>();
+        if (!upsertIds.isEmpty()) {
+            List<Product> products = productRepository.findByIds(upsertIds);
+            Set<Long> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+            // Deleted since the event was written; make sure the index agrees
+            upsertIds.stream().filter(id -> !found.contains(id)).forEach(deleteIds::add);
+            failures.putAll(productSearchService.indexProducts(products));
+            productReindexService.mirrorIndexed(products);
+        }
+        if (!deleteIds.isEmpty()) {
+            try {
+                productSearchService.deleteProductsFromIndex(deleteIds);
+            } catch (Exception e) {
+                deleteIds.forEach(id -> failures.put(id, e.getMessage()));
+            }
+            productReindexService.mirrorDeleted(deleteIds);
+        }
+
+        List<ProductOutboxEvent> completed = new ArrayList<>();
+        for (ProductOutboxEvent event : batch) {
+            String error = failures.get(event.getProductId());
+            if (error == null) {
+                completed.add(event);
+            } else {
+                reschedule(event, error, now);
+            }
+        }
+        if (!completed.isEmpty()) {
+            outboxRepository.markRelayed(completed.stream().map(ProductOutboxEvent::getId).collect(Collectors.toList()), now);
+            searchResultCache.invalidateAll();
+        }
+
+        indexedCounter.increment(completed.size());
+        failedCounter.increment(batch.size() - completed.size());
+        logger.info("Relayed {} outbox events ({} products), {} rescheduled",
+                completed.size(), latest.size(), batch.size() - completed.size());
+    }
+
+    private void reschedule(ProductOutboxEvent event, String error, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        long backoff = Math.min(maxBackoffSeconds, 1L << Math.min(attempts, 20));
+        event.setAttempts(attempts);
+        event.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        event.setNextAttemptAt(now.plusSeconds(backoff));
+        logger.warn("Indexing product {} failed (attempt {}), retrying in {}s: {}",
+                event.getProductId(), attempts, backoff, error);
+    }
+
+    private void updateLag(LocalDateTime now) {
+        LocalDateTime oldest = outboxRepository.findOldestCreatedAt();
+        lagSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, now).getSeconds()));
+    }
+}
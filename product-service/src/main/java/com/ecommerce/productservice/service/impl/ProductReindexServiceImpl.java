@@ -0,0 +1,543 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.cache.SearchResultCache;
+import com.ecommerce.productservice.document.ProductDocument;
+import com.ecommerce.productservice.dto.ReindexStatus;
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.entity.ProductOutboxEvent;
+import com.ecommerce.productservice.exception.ReindexInProgressException;
+import com.ecommerce.productservice.repository.ProductOutboxRepository;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.ProductReindexService;
+import com.ecommerce.productservice.service.ProductSearchService;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.AliasData;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the product search index without downtime. The live "products" name is an alias;
+ * a rebuild loads a fresh versioned index from Postgres in parallel id-range slices with
+ * refresh and replicas turned off, then swaps the alias onto it in a single atomic request.
+ * Changes relayed on this replica while the load runs are mirrored into the new index; changes
+ * made anywhere are caught up from the outbox, which every replica writes and which keeps
+ * relayed events for a retention period. Products whose bulk item failed are retried before
+ * the swap, and the old index stays live if any still fail. A Postgres advisory lock keeps
+ * replicas from rebuilding at the same time.
+ */
+@Service
+public class ProductReindexServiceImpl implements ProductReindexService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductReindexServiceImpl.class);
+
+    private static final DateTimeFormatter INDEX_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final String SUGGEST_FIELD = "suggest";
+    // Session-level, so it is held for as long as the job keeps its connection and dropped by
+    // Postgres if the replica dies mid-rebuild
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('product_reindex'), 0)";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('product_reindex'), 0)";
+
+    private final ProductRepository productRepository;
+    private final ProductOutboxRepository outboxRepository;
+    private final ProductSearchService productSearchService;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final RestHighLevelClient elasticsearchClient;
+    private final SearchResultCache searchResultCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final int parallelism;
+    private final int pageSize;
+    private final int shards;
+    private final int replicas;
+    private final String refreshInterval;
+    private final boolean keepOldIndices;
+    private final Duration catchUpMargin;
+    private final int retryAttempts;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> new Thread(r, "product-reindex"));
+    private volatile Job currentJob;
+
+    public ProductReindexServiceImpl(
+            ProductRepository productRepository,
+            ProductOutboxRepository outboxRepository,
+            ProductSearchService productSearchService,
+            ElasticsearchOperations elasticsearchOperations,
+            RestHighLevelClient elasticsearchClient,
+            SearchResultCache searchResultCache,
+            PlatformTransactionManager transactionManager,
+            DataSource dataSource,
+            @Value("${product.reindex.parallelism:4}") int parallelism,
+            @Value("${product.reindex.page-size:1000}") int pageSize,
+            @Value("${product.reindex.shards:1}") int shards,
+            @Value("${product.reindex.replicas:1}") int replicas,
+            @Value("${product.reindex.refresh-interval:1s}") String refreshInterval,
+            @Value("${product.reindex.keep-old-indices:false}") boolean keepOldIndices,
+            @Value("${product.reindex.catch-up-margin-seconds:300}") long catchUpMarginSeconds,
+            @Value("${product.reindex.retry-attempts:3}") int retryAttempts) {
+        this.productRepository = productRepository;
+        this.outboxRepository = outboxRepository;
+        this.productSearchService = productSearchService;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchClient = elasticsearchClient;
+        this.searchResultCache = searchResultCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+        this.shards = shards;
+        this.replicas = replicas;
+        this.refreshInterval = refreshInterval;
+        this.keepOldIndices = keepOldIndices;
+        this.catchUpMargin = Duration.ofSeconds(catchUpMarginSeconds);
+        this.retryAttempts = retryAttempts;
+    }
+
+    /**
+     * Make sure the alias exists on a fresh cluster so the repository and searches have a target,
+     * and that an existing index has the fields that can be added without a rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        try {
+            if (!elasticsearchOperations.indexOps(IndexCoordinates.of(aliasName())).exists()) {
+                String index = newIndexName();
+                logger.info("No product index found, creating {} behind alias {}", index, aliasName());
+                createIndex(index, false);
+                aliasOps().alias(new AliasActions(new AliasAction.Add(
+                        AliasActionParameters.builder().withIndices(index).withAliases(aliasName()).build())));
+            } else {
+                addMissingFields();
+            }
+        } catch (Exception e) {
+            logger.error("Could not verify product search index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Put the suggest mapping on the live index, so documents written from now on carry
+     * autocomplete inputs. Only fields that need no new analysis settings can be added to an
+     * open index; the rest, such as the name n-gram subfields, arrive with a rebuild.
+     */
+    @SuppressWarnings("unchecked")
+    private void addMissingFields() {
+        Map<String, Object> properties = (Map<String, Object>) aliasOps().createMapping(ProductDocument.class)
+                .get("properties");
+        Document mapping = Document.create();
+        mapping.put("properties", Map.of(SUGGEST_FIELD, properties.get(SUGGEST_FIELD)));
+        try {
+            aliasOps().putMapping(mapping);
+            productSearchService.clearMappingCache();
+        } catch (Exception e) {
+            logger.warn("Could not add the {} mapping to the product index: {}", SUGGEST_FIELD, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized ReindexStatus startReindex() {
+        Job running = currentJob;
+        if (running != null && running.state == ReindexStatus.State.RUNNING) {
+            throw new ReindexInProgressException("A reindex into " + running.targetIndex + " is already running");
+        }
+
+        // The check above only covers this replica; the advisory lock covers the others
+        Connection lock = acquireClusterLock();
+        Job job = new Job(newIndexName());
+        try {
+            coordinator.submit(() -> {
+                try {
+                    run(job);
+                } finally {
+                    releaseClusterLock(lock);
+                }
+            });
+        } catch (RuntimeException e) {
+            releaseClusterLock(lock);
+            throw e;
+        }
+        currentJob = job;
+        return job.toStatus();
+    }
+
+    @Override
+    public ReindexStatus getStatus() {
+        Job job = currentJob;
+        return job != null ? job.toStatus() : ReindexStatus.builder().state(ReindexStatus.State.IDLE).build();
+    }
+
+    @Override
+    public void mirrorIndexed(List<Product> products) {
+        Job job = currentJob;
+        if (job == null || !job.mirroring || products.isEmpty()) {
+            return;
+        }
+        try {
+            productSearchService.indexProducts(products, job.targetIndex);
+        } catch (Exception e) {
+            logger.warn("Failed to mirror {} products into {}: {}", products.size(), job.targetIndex, e.getMessage());
+        }
+    }
+
+    @Override
+    public void mirrorDeleted(Collection<Long> productIds) {
+        Job job = currentJob;
+        if (job == null || !job.mirroring || productIds.isEmpty()) {
+            return;
+        }
+        try {
+            productSearchService.deleteProductsFromIndex(productIds, job.targetIndex);
+        } catch (Exception e) {
+            logger.warn("Failed to mirror deletion of {} into {}: {}", productIds, job.targetIndex, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private void run(Job job) {
+        logger.info("Starting product reindex into {}", job.targetIndex);
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            createIndex(job.targetIndex, true);
+            job.mirroring = true;
+
+            Long minId = productRepository.findMinId();
+            Long maxId = productRepository.findMaxId();
+            long loadedMaxId = maxId != null ? maxId : 0L;
+            job.total = productRepository.count();
+
+            if (minId != null) {
+                List<Future<?>> slices = new ArrayList<>();
+                long span = Math.max(1, (maxId - minId + parallelism) / parallelism);
+                for (long from = minId - 1; from < maxId; from += span) {
+                    long afterId = from;
+                    long toId = Math.min(maxId, from + span);
+                    slices.add(workers.submit((Callable<Void>) () -> {
+                        loadSlice(job, afterId, toId);
+                        return null;
+                    }));
+                }
+                for (Future<?> slice : slices) {
+                    slice.get();
+                }
+            }
+
+            LocalDateTime catchUpStartedAt = LocalDateTime.now();
+            catchUp(job, job.startedAt, loadedMaxId);
+            retryFailed(job);
+            if (!job.failedIds.isEmpty()) {
+                // Swapping now would serve an index with products missing; the old one stays live
+                throw new IllegalStateException(job.failedIds.size() + " products could not be indexed into "
+                        + job.targetIndex + " after " + retryAttempts + " retries");
+            }
+            restoreSettings(job.targetIndex);
+            elasticsearchOperations.indexOps(IndexCoordinates.of(job.targetIndex)).refresh();
+            swapAlias(job.targetIndex);
+            // Other replicas kept relaying into the old index until the swap
+            catchUp(job, catchUpStartedAt, loadedMaxId);
+            retryFailed(job);
+            if (!job.failedIds.isEmpty()) {
+                requeue(job.failedIds);
+            }
+            searchResultCache.invalidateAll();
+
+            job.mirroring = false;
+            job.finish(ReindexStatus.State.COMPLETED, null);
+            ReindexStatus status = job.toStatus();
+            logger.info("Product reindex into {} completed: {} indexed, {} failed, {} docs/s",
+                    job.targetIndex, status.getIndexedProducts(), status.getFailedProducts(),
+                    String.format("%.0f", status.getDocsPerSecond()));
+        } catch (Exception e) {
+            job.mirroring = false;
+            job.finish(ReindexStatus.State.FAILED, e.getMessage());
+            logger.error("Product reindex into {} failed: {}", job.targetIndex, e.getMessage(), e);
+            try {
+                elasticsearchOperations.indexOps(IndexCoordinates.of(job.targetIndex)).delete();
+            } catch (Exception cleanup) {
+                logger.warn("Could not delete abandoned index {}: {}", job.targetIndex, cleanup.getMessage());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void loadSlice(Job job, long afterId, long toId) {
+        long cursor = afterId;
+        while (cursor < toId) {
+            long from = cursor;
+            Long last = readOnlyTransaction.execute(status -> {
+                List<Product> page = productRepository.findSliceAfter(from, toId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    return null;
+                }
+                job.record(page.size(), productSearchService.indexProducts(page, job.targetIndex).keySet());
+                return page.get(page.size() - 1).getId();
+            });
+            if (last == null) {
+                return;
+            }
+            cursor = last;
+        }
+    }
+
+    /**
+     * Re-read every product with an outbox event since the given time, plus rows inserted past
+     * the loaded id range, so the new index reflects the database whichever replica made the
+     * change. Ids that no longer exist are deleted, so a slice that read a row before it was
+     * deleted cannot resurrect it. The margin covers clock skew between replicas and writes
+     * that were still in flight when the phase started.
+     */
+    private void catchUp(Job job, LocalDateTime since, long loadedMaxId) {
+        Set<Long> ids = new TreeSet<>(outboxRepository.findProductIdsChangedSince(since.minus(catchUpMargin)));
+        ids.addAll(productRepository.findIdsAfter(loadedMaxId));
+        List<Long> changedIds = new ArrayList<>(ids);
+
+        long deleted = reindexIds(job, changedIds);
+        logger.debug("Reindex catch-up applied {} changed and {} deleted products",
+                changedIds.size() - deleted, deleted);
+    }
+
+    // Bulk item failures are usually transient (rejections, timeouts); a few rounds clear most
+    private void retryFailed(Job job) {
+        for (int attempt = 1; attempt <= retryAttempts && !job.failedIds.isEmpty(); attempt++) {
+            List<Long> ids = new ArrayList<>(new TreeSet<>(job.failedIds));
+            logger.info("Retrying {} products that failed to index into {} (attempt {} of {})",
+                    ids.size(), job.targetIndex, attempt, retryAttempts);
+            reindexIds(job, ids);
+        }
+    }
+
+    /**
+     * Index the current state of the given products into the target, deleting the ones that no
+     * longer exist. Failures are added to the job's failed ids and successes taken off them.
+     * Returns how many were deleted.
+     */
+    private long reindexIds(Job job, List<Long> ids) {
+        long deleted = 0;
+        for (int i = 0; i < ids.size(); i += pageSize) {
+            List<Long> batch = ids.subList(i, Math.min(ids.size(), i + pageSize));
+            Integer missing = readOnlyTransaction.execute(status -> {
+                List<Product> products = productRepository.findByIds(batch);
+                Set<Long> failures = products.isEmpty() ? Set.of()
+                        : productSearchService.indexProducts(products, job.targetIndex).keySet();
+                Set<Long> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+                List<Long> gone = batch.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+                if (!gone.isEmpty()) {
+                    productSearchService.deleteProductsFromIndex(gone, job.targetIndex);
+                    gone.forEach(job.failedIds::remove);
+                }
+                job.settle(found, failures);
+                return gone.size();
+            });
+            deleted += missing != null ? missing : 0;
+        }
+        return deleted;
+    }
+
+    // After the swap the relay owns the live index, so whatever still fails is handed to it
+    private void requeue(Set<Long> productIds) {
+        logger.warn("{} products still failed after the alias swap; queued for the outbox relay", productIds.size());
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(productIds.stream()
+                .map(productId -> {
+                    ProductOutboxEvent event = new ProductOutboxEvent();
+                    event.setProductId(productId);
+                    event.setEventType(ProductOutboxEvent.EventType.UPSERT);
+                    return event;
+                })
+                .collect(Collectors.toList())));
+    }
+
+    private Connection acquireClusterLock() {
+        try {
+            Connection connection = dataSource.getConnection();
+            boolean locked = false;
+            try (PreparedStatement statement = connection.prepareStatement(TRY_LOCK_SQL);
+                 ResultSet rs = statement.executeQuery()) {
+                locked = rs.next() && rs.getBoolean(1);
+            } finally {
+                if (!locked) {
+                    connection.close();
+                }
+            }
+            if (!locked) {
+                throw new ReindexInProgressException("A reindex is already running on another instance");
+            }
+            return connection;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not take the reindex lock: " + e.getMessage(), e);
+        }
+    }
+
+    // The connection goes back to the pool, so the lock must be released explicitly first
+    private void releaseClusterLock(Connection connection) {
+        try (connection; PreparedStatement statement = connection.prepareStatement(UNLOCK_SQL)) {
+            statement.execute();
+        } catch (SQLException e) {
+            logger.warn("Could not release the reindex lock: {}", e.getMessage());
+        }
+    }
+
+    private void createIndex(String indexName, boolean bulkLoad) {
+        Settings settings = aliasOps().createSettings(ProductDocument.class).flatten();
+        settings.put("index.number_of_shards", shards);
+        settings.put("index.number_of_replicas", bulkLoad ? 0 : replicas);
+        settings.put("index.refresh_interval", bulkLoad ? "-1" : refreshInterval);
+        elasticsearchOperations.indexOps(IndexCoordinates.of(indexName))
+                .create(settings, aliasOps().createMapping(ProductDocument.class));
+    }
+
+    private void restoreSettings(String indexName) throws Exception {
+        UpdateSettingsRequest request = new UpdateSettingsRequest(indexName)
+                .settings(org.elasticsearch.common.settings.Settings.builder()
+                        .put("index.number_of_replicas", replicas)
+                        .put("index.refresh_interval", refreshInterval));
+        elasticsearchClient.indices().putSettings(request, RequestOptions.DEFAULT);
+    }
+
+    private void swapAlias(String targetIndex) {
+        String alias = aliasName();
+        IndexOperations ops = aliasOps();
+        AliasActions actions = new AliasActions(new AliasAction.Add(
+                AliasActionParameters.builder().withIndices(targetIndex).withAliases(alias).build()));
+
+        List<String> oldIndices = new ArrayList<>();
+        boolean legacyConcreteIndex = false;
+        if (ops.exists()) {
+            Map<String, Set<AliasData>> current = ops.getAliases(alias);
+            if (current.isEmpty()) {
+                // Pre-alias deployments have a concrete index named "products"; drop it in the same request
+                legacyConcreteIndex = true;
+                actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(alias).build()));
+            } else {
+                oldIndices.addAll(current.keySet());
+                oldIndices.remove(targetIndex);
+                if (!oldIndices.isEmpty()) {
+                    actions.add(new AliasAction.Remove(AliasActionParameters.builder()
+                            .withIndices(oldIndices.toArray(new String[0])).withAliases(alias).build()));
+                }
+            }
+        }
+
+        ops.alias(actions);
+        productSearchService.clearMappingCache();
+        logger.info("Alias {} now points to {} (previously {})", alias, targetIndex,
+                legacyConcreteIndex ? "concrete index" : oldIndices);
+
+        if (!keepOldIndices) {
+            for (String oldIndex : oldIndices) {
+                elasticsearchOperations.indexOps(IndexCoordinates.of(oldIndex)).delete();
+            }
+        }
+    }
+
+    private IndexOperations aliasOps() {
+        return elasticsearchOperations.indexOps(ProductDocument.class);
+    }
+
+    private String aliasName() {
+        return elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class).getIndexName();
+    }
+
+    private String newIndexName() {
+        return aliasName() + "_" + LocalDateTime.now().format(INDEX_SUFFIX);
+    }
+
+    private static class Job {
+        final String targetIndex;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final AtomicLong indexed = new AtomicLong();
+        final Set<Long> failedIds = ConcurrentHashMap.newKeySet();
+        volatile ReindexStatus.State state = ReindexStatus.State.RUNNING;
+        volatile boolean mirroring;
+        volatile long total;
+        volatile long endNanos;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+
+        Job(String targetIndex) {
+            this.targetIndex = targetIndex;
+        }
+
+        void record(int attempted, Set<Long> failures) {
+            indexed.addAndGet(attempted - failures.size());
+            failedIds.addAll(failures);
+        }
+
+        void settle(Collection<Long> ids, Set<Long> failures) {
+            for (Long id : ids) {
+                if (failures.contains(id)) {
+                    failedIds.add(id);
+                } else if (failedIds.remove(id)) {
+                    indexed.incrementAndGet();
+                }
+            }
+        }
+
+        void finish(ReindexStatus.State finalState, String message) {
+            endNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            error = message;
+            state = finalState;
+        }
+
+        ReindexStatus toStatus() {
+            long elapsed = (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+            double seconds = Math.max(Duration.ofNanos(elapsed).toMillis(), 1) / 1000.0;
+            return ReindexStatus.builder()
+                    .state(state)
+                    .targetIndex(targetIndex)
+                    .totalProducts(total)
+                    .indexedProducts(indexed.get())
+                    .failedProducts(failedIds.size())
+                    .docsPerSecond(indexed.get() / seconds)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -1,27 +1,87 @@
 package com.ecommerce.productservice.service.impl;
 
+import com.ecommerce.productservice.cache.AutocompleteCache;
+import com.ecommerce.productservice.cache.CategoryHierarchyCache;
 import com.ecommerce.productservice.document.ProductDocument;
+import com.ecommerce.productservice.dto.FacetBucket;
+import com.ecommerce.productservice.dto.FacetedSearchResponse;
+import com.ecommerce.productservice.dto.ProductCursorPage;
 import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSearchFilter;
 import com.ecommerce.productservice.entity.Product;
-import com.ecommerce.productservice.entity.ProductSpecification;
+import com.ecommerce.productservice.exception.InvalidCursorException;
+import com.ecommerce.productservice.mapper.ProductMapper;
 import com.ecommerce.productservice.repository.elasticsearch.ProductSearchRepository;
 import com.ecommerce.productservice.service.ProductSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.unit.Fuzziness;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.MatchNoneQueryBuilder;
 import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.elasticsearch.index.query.Operator;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
-import org.modelmapper.ModelMapper;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.filter.Filter;
+import org.elasticsearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.Range;
+import org.elasticsearch.search.aggregations.bucket.range.RangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.suggest.SuggestBuilder;
+import org.elasticsearch.search.suggest.SuggestBuilders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchAggregations;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
 import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,92 +89,403 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductSearchServiceImpl implements ProductSearchService {
 
+    // Must match min_gram/max_gram in elasticsearch/product-settings.json
+    private static final int NAME_NGRAM_SIZE = 3;
+    private static final String SUGGEST_FIELD = "suggest";
+
     private final ProductSearchRepository productSearchRepository;
     private final ElasticsearchOperations elasticsearchOperations;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+    private final AutocompleteCache autocompleteCache;
+    private final RestHighLevelClient elasticsearchClient;
+    private final ObjectMapper objectMapper;
+
+    // Whether the index behind each alias maps the suggest field, checked once per alias
+    private final Map<String, Boolean> suggestMapped = new ConcurrentHashMap<>();
+
+    @Value("${product.search.facet-size:20}")
+    private int facetSize;
+
+    @Value("${product.search.price-ranges:25,50,100,250,500,1000}")
+    private List<Double> priceRangeBounds;
+
+    @Value("${product.search.autocomplete.max-suggestions:5}")
+    private int maxSuggestions;
+
+    @Value("${product.search.cursor.keep-alive:1m}")
+    private Duration cursorKeepAlive;
     
     /**
      * Search products with fuzzy matching and typo tolerance
      */
     public Page<ProductResponse> searchProducts(String query, Pageable pageable) {
-        // Create a more sophisticated search query
         NativeSearchQuery searchQuery = new NativeSearchQueryBuilder()
-                .withQuery(QueryBuilders.boolQuery()
-                        .should(QueryBuilders.multiMatchQuery(query)
-                                .field("name", 3.0f)
-                                .field("description", 2.0f)
-                                .field("specification.brand", 2.0f)
-                                .field("specification.features")
-                                .type(MultiMatchQueryBuilder.Type.BEST_FIELDS)
-                                .fuzziness(Fuzziness.AUTO)
-                                .prefixLength(2)
-                                .fuzzyTranspositions(true)
-                                .minimumShouldMatch("75%"))
-                        .should(QueryBuilders.wildcardQuery("name", "*" + query.toLowerCase() + "*"))
-                        .minimumShouldMatch(1))
+                .withQuery(productQuery(query))
                 .withPageable(pageable)
                 .build();
 
         SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(searchQuery, ProductDocument.class);
 
         List<ProductResponse> results = searchHits.getSearchHits().stream()
-                .map(hit -> mapToProductResponse(hit.getContent(), hit.getScore()))
+                .map(hit -> productMapper.toResponse(hit.getContent(), hit.getScore()))
                 .collect(Collectors.toList());
 
         return new PageImpl<>(results, pageable, searchHits.getTotalHits());
     }
+
+    static QueryBuilder productQuery(String query) {
+        return QueryBuilders.boolQuery()
+                .should(QueryBuilders.multiMatchQuery(query)
+                        .field("name", 3.0f)
+                        .field("description", 2.0f)
+                        .field("specification.brand", 2.0f)
+                        .field("specification.features")
+                        .type(MultiMatchQueryBuilder.Type.BEST_FIELDS)
+                        .fuzziness(Fuzziness.AUTO)
+                        .prefixLength(2)
+                        .fuzzyTranspositions(true)
+                        .minimumShouldMatch("75%"))
+                .should(nameSubstringQuery(query))
+                .minimumShouldMatch(1);
+    }
     
     /**
-     * Search products by category with fuzzy matching
+     * Substring match on the product name. Trigram positions are consecutive, so a phrase
+     * match on name.ngram only hits names containing the query as a contiguous substring.
+     * Queries shorter than a trigram match the 1-2 character grams in name.short instead: the
+     * query's own grams are all required, which for one or two characters means the whole
+     * query appears in the name. The prefix clause keeps short queries working on indexes
+     * built before name.short existed, until they are rebuilt.
+     */
+    static QueryBuilder nameSubstringQuery(String query) {
+        String text = query.trim().toLowerCase(Locale.ROOT);
+        if (text.length() < NAME_NGRAM_SIZE) {
+            return QueryBuilders.boolQuery()
+                    .should(QueryBuilders.matchQuery("name.short", text).operator(Operator.AND))
+                    .should(QueryBuilders.prefixQuery("name", text))
+                    .minimumShouldMatch(1);
+        }
+        return QueryBuilders.matchPhraseQuery("name.ngram", text);
+    }
+
+    /**
+     * Search products by category, including all of its subcategories, with fuzzy matching
      */
     public Page<ProductResponse> searchByCategory(Long categoryId, String query, Pageable pageable) {
         NativeSearchQuery searchQuery = new NativeSearchQueryBuilder()
-                .withQuery(QueryBuilders.boolQuery()
-                        .must(QueryBuilders.termQuery("categoryId", categoryId))
-                        .must(QueryBuilders.multiMatchQuery(query)
-                                .field("name", 3.0f)
-                                .field("description", 2.0f)
-                                .field("specification.brand", 2.0f)
-                                .fuzziness(Fuzziness.AUTO)
-                                .prefixLength(2)))
+                .withQuery(categoryQuery(categoryId, query))
                 .withPageable(pageable)
                 .build();
                 
         SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(searchQuery, ProductDocument.class);
         
         List<ProductResponse> results = searchHits.getSearchHits().stream()
-                .map(hit -> {
-                    ProductResponse response = modelMapper.map(hit.getContent(), ProductResponse.class);
-                    response.setScore(hit.getScore()); // Include relevance score
-                    return response;
-                })
+                .map(hit -> productMapper.toResponse(hit.getContent(), hit.getScore()))
                 .collect(Collectors.toList());
                 
         return new PageImpl<>(results, pageable, searchHits.getTotalHits());
     }
+
+    private QueryBuilder categoryQuery(Long categoryId, String query) {
+        Collection<Long> categoryIds = categoryHierarchyCache.getSubtreeIds(categoryId);
+        return QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termsQuery("categoryId",
+                        categoryIds.isEmpty() ? List.of(categoryId) : categoryIds))
+                .must(QueryBuilders.multiMatchQuery(query)
+                        .field("name", 3.0f)
+                        .field("description", 2.0f)
+                        .field("specification.brand", 2.0f)
+                        .fuzziness(Fuzziness.AUTO)
+                        .prefixLength(2));
+    }
+
+    /**
+     * Cursor-based search for clients that page deep into results. The first call opens a
+     * point in time so every page sees the same snapshot; later pages continue with
+     * search_after from the previous page's last sort values, so page N costs the same as
+     * page 1 and is not bounded by max_result_window. The point in time is closed once
+     * the last page has been returned.
+     */
+    public ProductCursorPage searchAfter(String query, Long categoryId, String cursor, int size) {
+        SearchCursor current = cursor != null ? decodeCursor(cursor)
+                : new SearchCursor(openPointInTime(), query, categoryId, null);
+
+        SearchSourceBuilder source = new SearchSourceBuilder()
+                .query(current.getCategoryId() != null
+                        ? categoryQuery(current.getCategoryId(), current.getQuery())
+                        : productQuery(current.getQuery()))
+                .size(size)
+                .trackTotalHits(false)
+                // With a point in time, Elasticsearch adds the _shard_doc tiebreaker itself
+                .sort(SortBuilders.scoreSort())
+                .pointInTimeBuilder(new PointInTimeBuilder(current.getPointInTimeId())
+                        .setKeepAlive(TimeValue.timeValueMillis(cursorKeepAlive.toMillis())));
+        if (current.getSearchAfter() != null) {
+            source.searchAfter(current.getSearchAfter().toArray());
+        }
+
+        SearchResponse response;
+        try {
+            response = elasticsearchClient.search(new SearchRequest().source(source), RequestOptions.DEFAULT);
+        } catch (ElasticsearchStatusException e) {
+            if (e.status() == RestStatus.NOT_FOUND) {
+                throw new InvalidCursorException("Search cursor has expired, start a new search");
+            }
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cursor search failed", e);
+        }
+
+        SearchHit[] hits = response.getHits().getHits();
+        List<ProductResponse> content = new ArrayList<>(hits.length);
+        for (SearchHit hit : hits) {
+            ProductDocument document = elasticsearchOperations.getElasticsearchConverter()
+                    .read(ProductDocument.class, Document.from(hit.getSourceAsMap()));
+            content.add(productMapper.toResponse(document, hit.getScore()));
+        }
+
+        String pointInTimeId = response.pointInTimeId() != null ? response.pointInTimeId() : current.getPointInTimeId();
+        if (hits.length < size) {
+            closePointInTime(pointInTimeId);
+            return new ProductCursorPage(content, null);
+        }
+        SearchCursor next = new SearchCursor(pointInTimeId, current.getQuery(), current.getCategoryId(),
+                Arrays.asList(hits[hits.length - 1].getSortValues()));
+        return new ProductCursorPage(content, encodeCursor(next));
+    }
+
+    private String openPointInTime() {
+        OpenPointInTimeRequest request = new OpenPointInTimeRequest(
+                elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class).getIndexNames())
+                .keepAlive(TimeValue.timeValueMillis(cursorKeepAlive.toMillis()));
+        try {
+            return elasticsearchClient.openPointInTime(request, RequestOptions.DEFAULT).getPointInTimeId();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open point in time", e);
+        }
+    }
+
+    private String encodeCursor(SearchCursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode search cursor", e);
+        }
+    }
+
+    private SearchCursor decodeCursor(String cursor) {
+        try {
+            SearchCursor decoded = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), SearchCursor.class);
+            if (decoded.getPointInTimeId() == null || decoded.getQuery() == null) {
+                throw new InvalidCursorException("Malformed search cursor");
+            }
+            return decoded;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed search cursor");
+        }
+    }
+
+    private void closePointInTime(String pointInTimeId) {
+        try {
+            elasticsearchClient.closePointInTime(new ClosePointInTimeRequest(pointInTimeId), RequestOptions.DEFAULT);
+        } catch (Exception e) {
+            // It expires on its own after the keep-alive
+            log.warn("Failed to close point in time: {}", e.getMessage());
+        }
+    }
     
     /**
-     * Autocomplete search for product names and brands
+     * Search with facets in a single request. The text query scores hits; category, brand and
+     * price restrictions run in filter context so Elasticsearch can cache them. Brand and price
+     * selections are applied as a post filter and each facet is computed under the other
+     * selections only, so a sidebar still shows the alternatives to what the user picked.
+     */
+    public FacetedSearchResponse facetedSearch(ProductSearchFilter filter, Pageable pageable) {
+        BoolQueryBuilder query = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery("isActive", true));
+        if (filter.getQuery() != null && !filter.getQuery().isBlank()) {
+            query.must(QueryBuilders.multiMatchQuery(filter.getQuery())
+                    .field("name", 3.0f)
+                    .field("description", 2.0f)
+                    .field("specification.brand", 2.0f)
+                    .fuzziness(Fuzziness.AUTO)
+                    .prefixLength(2));
+        }
+        if (filter.getCategoryId() != null) {
+            Collection<Long> categoryIds = categoryHierarchyCache.getSubtreeIds(filter.getCategoryId());
+            query.filter(QueryBuilders.termsQuery("categoryId",
+                    categoryIds.isEmpty() ? List.of(filter.getCategoryId()) : categoryIds));
+        }
+
+        QueryBuilder brandFilter = filter.getBrands() == null || filter.getBrands().isEmpty()
+                ? null : QueryBuilders.termsQuery("brand", filter.getBrands());
+        RangeQueryBuilder priceFilter = null;
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            priceFilter = QueryBuilders.rangeQuery("price").gte(filter.getMinPrice()).lte(filter.getMaxPrice());
+        }
+
+        NativeSearchQueryBuilder searchQuery = new NativeSearchQueryBuilder()
+                .withQuery(query)
+                .withPageable(pageable)
+                .withAggregations(
+                        facet("brands", priceFilter, AggregationBuilders.terms("values").field("brand").size(facetSize)),
+                        facet("categories", andFilters(brandFilter, priceFilter),
+                                AggregationBuilders.terms("values").field("categoryName").size(facetSize)),
+                        facet("priceRanges", brandFilter, priceRangeAggregation()));
+        QueryBuilder postFilter = andFilters(brandFilter, priceFilter);
+        if (postFilter != null) {
+            searchQuery.withFilter(postFilter);
+        }
+
+        SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(searchQuery.build(), ProductDocument.class);
+        Aggregations aggregations = searchHits.hasAggregations()
+                ? ((ElasticsearchAggregations) searchHits.getAggregations()).aggregations()
+                : null;
+
+        return FacetedSearchResponse.builder()
+                .content(searchHits.getSearchHits().stream()
+                        .map(hit -> productMapper.toResponse(hit.getContent(), hit.getScore()))
+                        .collect(Collectors.toList()))
+                .totalElements(searchHits.getTotalHits())
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .brands(termBuckets(aggregations, "brands"))
+                .categories(termBuckets(aggregations, "categories"))
+                .priceRanges(rangeBuckets(aggregations, "priceRanges"))
+                .build();
+    }
+
+    private FilterAggregationBuilder facet(String name, QueryBuilder scope, AggregationBuilder values) {
+        return AggregationBuilders.filter(name, scope != null ? scope : QueryBuilders.matchAllQuery())
+                .subAggregation(values);
+    }
+
+    private QueryBuilder andFilters(QueryBuilder... filters) {
+        BoolQueryBuilder combined = QueryBuilders.boolQuery();
+        for (QueryBuilder filter : filters) {
+            if (filter != null) {
+                combined.filter(filter);
+            }
+        }
+        return combined.filter().isEmpty() ? null : combined;
+    }
+
+    private RangeAggregationBuilder priceRangeAggregation() {
+        RangeAggregationBuilder ranges = AggregationBuilders.range("values").field("price");
+        Double previous = null;
+        for (Double bound : priceRangeBounds) {
+            if (previous == null) {
+                ranges.addUnboundedTo(bound);
+            } else {
+                ranges.addRange(previous, bound);
+            }
+            previous = bound;
+        }
+        return previous == null ? ranges.addUnboundedFrom(0) : ranges.addUnboundedFrom(previous);
+    }
+
+    private List<FacetBucket> termBuckets(Aggregations aggregations, String name) {
+        if (aggregations == null || aggregations.get(name) == null) {
+            return Collections.emptyList();
+        }
+        Terms terms = ((Filter) aggregations.get(name)).getAggregations().get("values");
+        return terms.getBuckets().stream()
+                .map(bucket -> new FacetBucket(bucket.getKeyAsString(), bucket.getDocCount()))
+                .collect(Collectors.toList());
+    }
+
+    private List<FacetBucket> rangeBuckets(Aggregations aggregations, String name) {
+        if (aggregations == null || aggregations.get(name) == null) {
+            return Collections.emptyList();
+        }
+        Range range = ((Filter) aggregations.get(name)).getAggregations().get("values");
+        return range.getBuckets().stream()
+                .map(bucket -> new FacetBucket(bucket.getKeyAsString(), bucket.getDocCount(),
+                        toBound(bucket.getFrom()), toBound(bucket.getTo())))
+                .collect(Collectors.toList());
+    }
+
+    private static Double toBound(Object value) {
+        double bound = ((Number) value).doubleValue();
+        return Double.isInfinite(bound) ? null : bound;
+    }
+
+    /**
+     * Autocomplete product names and brands from the completion suggester. Answers for hot
+     * prefixes come from a short-lived in-process cache. Only an index that does not map the
+     * suggest field at all falls back to a phrase-prefix query.
      */
     public List<String> autocomplete(String query) {
+        String prefix = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return autocompleteCache.get(prefix, this::suggest);
+    }
+
+    private List<String> suggest(String prefix) {
+        String alias = elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class).getIndexName();
+        if (!suggestMapped.computeIfAbsent(alias, this::hasSuggestField)) {
+            return phrasePrefixSuggestions(prefix);
+        }
+        return completionSuggestions(prefix);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean hasSuggestField(String alias) {
+        Object properties = elasticsearchOperations.indexOps(IndexCoordinates.of(alias)).getMapping().get("properties");
+        boolean mapped = properties instanceof Map && ((Map<String, Object>) properties).containsKey(SUGGEST_FIELD);
+        if (!mapped) {
+            log.info("Index behind {} has no {} mapping; autocomplete uses phrase-prefix queries", alias, SUGGEST_FIELD);
+        }
+        return mapped;
+    }
+
+    /**
+     * Forget what is known about the live index mapping, after the alias moved or the
+     * mapping changed.
+     */
+    public void clearMappingCache() {
+        suggestMapped.clear();
+    }
+
+    private List<String> completionSuggestions(String prefix) {
         NativeSearchQuery searchQuery = new NativeSearchQueryBuilder()
-                .withQuery(QueryBuilders.multiMatchQuery(query)
-                        .field("name")
-                        .field("specification.brand")
-                        .type(MultiMatchQueryBuilder.Type.PHRASE_PREFIX))
-                .withPageable(Pageable.ofSize(5)) // Limit to 5 suggestions
+                .withQuery(new MatchNoneQueryBuilder())
+                .withSuggestBuilder(new SuggestBuilder().addSuggestion("products",
+                        SuggestBuilders.completionSuggestion(SUGGEST_FIELD)
+                                .prefix(prefix)
+                                .skipDuplicates(true)
+                                .size(maxSuggestions)))
                 .build();
 
-        return elasticsearchOperations.search(searchQuery, ProductDocument.class)
-                .getSearchHits()
-                .stream()
-                .map(hit -> {
-                    ProductDocument product = hit.getContent();
-                    return product.getName() != null ? product.getName() :
-                            (product.getSpecification() != null && product.getSpecification().getBrand() != null ?
-                                    product.getSpecification().getBrand() : "");
-                })
-                .filter(s -> !s.isEmpty())
+        Suggest suggest = elasticsearchOperations.search(searchQuery, ProductDocument.class).getSuggest();
+        if (suggest == null || suggest.getSuggestion("products") == null) {
+            return Collections.emptyList();
+        }
+        return suggest.getSuggestion("products").getEntries().stream()
+                .flatMap(entry -> entry.getOptions().stream())
+                .map(Suggest.Suggestion.Entry.Option::getText)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private List<String> phrasePrefixSuggestions(String prefix) {
+        NativeSearchQuery searchQuery = new NativeSearchQueryBuilder()
+                .withQuery(QueryBuilders.boolQuery()
+                        .filter(QueryBuilders.termQuery("isActive", true))
+                        .must(QueryBuilders.multiMatchQuery(prefix)
+                                .field("name")
+                                .field("specification.brand")
+                                .type(MultiMatchQueryBuilder.Type.PHRASE_PREFIX)))
+                .withPageable(Pageable.ofSize(maxSuggestions))
+                .build();
+
+        return elasticsearchOperations.search(searchQuery, ProductDocument.class).getSearchHits().stream()
+                .map(hit -> hit.getContent().getName())
+                .filter(Objects::nonNull)
+                .distinct()
                 .collect(Collectors.toList());
     }
     
@@ -144,6 +515,83 @@ public class ProductSearchServiceImpl implements ProductSearchService {
         }
     }
     
+    /**
+     * Index many products with one bulk request. Returns the ids that failed, with the reason.
+     */
+    public Map<Long, String> indexProducts(List<Product> products) {
+        return indexProducts(products, elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class));
+    }
+
+    /**
+     * Bulk index into a specific index rather than the live alias, e.g. while rebuilding
+     */
+    public Map<Long, String> indexProducts(List<Product> products, String indexName) {
+        return indexProducts(products, IndexCoordinates.of(indexName));
+    }
+
+    private Map<Long, String> indexProducts(List<Product> products, IndexCoordinates index) {
+        Map<Long, String> failures = new HashMap<>();
+        if (products.isEmpty()) {
+            return failures;
+        }
+
+        List<IndexQuery> queries = new ArrayList<>(products.size());
+        for (Product product : products) {
+            queries.add(new IndexQueryBuilder()
+                    .withId(String.valueOf(product.getId()))
+                    .withObject(convertToDocument(product))
+                    .build());
+        }
+
+        try {
+            elasticsearchOperations.bulkIndex(queries, index);
+            log.debug("Bulk indexed {} products", queries.size());
+        } catch (BulkFailureException e) {
+            e.getFailedDocuments().forEach((id, reason) -> failures.put(Long.valueOf(id), reason));
+            log.error("Bulk indexing failed for {} of {} products", failures.size(), queries.size());
+        } catch (Exception e) {
+            products.forEach(product -> failures.put(product.getId(), e.getMessage()));
+            log.error("Bulk indexing of {} products failed: {}", queries.size(), e.getMessage(), e);
+        }
+        return failures;
+    }
+
+    /**
+     * Delete many products from the index with one request
+     */
+    public void deleteProductsFromIndex(Collection<Long> productIds) {
+        deleteProductsFromIndex(productIds, elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class));
+    }
+
+    public void deleteProductsFromIndex(Collection<Long> productIds, String indexName) {
+        deleteProductsFromIndex(productIds, IndexCoordinates.of(indexName));
+    }
+
+    private void deleteProductsFromIndex(Collection<Long> productIds, IndexCoordinates index) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        NativeSearchQuery query = new NativeSearchQueryBuilder()
+                .withIds(productIds.stream().map(String::valueOf).collect(Collectors.toList()))
+                .build();
+        elasticsearchOperations.delete(query, ProductDocument.class, index);
+        log.debug("Deleted {} products from index", productIds.size());
+    }
+
+    private Completion suggestInputs(Product product) {
+        if (Boolean.FALSE.equals(product.getIsActive())) {
+            return null;
+        }
+        List<String> inputs = new ArrayList<>();
+        if (product.getName() != null) {
+            inputs.add(product.getName());
+        }
+        if (product.getSpecification() != null && product.getSpecification().getBrand() != null) {
+            inputs.add(product.getSpecification().getBrand());
+        }
+        return inputs.isEmpty() ? null : new Completion(inputs);
+    }
+
     /**
      * Convert Product entity to ProductDocument for indexing
      */
@@ -160,40 +608,22 @@ public class ProductSearchServiceImpl implements ProductSearchService {
                 .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
                 .categoryName(product.getCategory() != null ? product.getCategory().getName() : null)
                 .isActive(product.getIsActive())
+                .brand(product.getSpecification() != null ? product.getSpecification().getBrand() : null)
                 .specification(product.getSpecification())
+                .suggest(suggestInputs(product))
                 .build();
     }
 
-    private ProductResponse mapToProductResponse(ProductDocument document, float score) {
-        ProductResponse response = new ProductResponse();
-        response.setId(document.getId());
-        response.setName(document.getName());
-        response.setDescription(document.getDescription());
-        response.setPrice(document.getPrice());
-        response.setStockQuantity(document.getStockQuantity());
-        response.setSku(document.getSku());
-        response.setCategoryName(document.getCategoryName());
-        response.setScore(score);
-
-        // Map specification fields if they exist
-        if (document.getSpecification() != null) {
-            ProductSpecification spec = document.getSpecification();
-            response.setBrand(spec.getBrand());
-            response.setModel(spec.getModel());
-            response.setColor(spec.getColor());
-            response.setSize(spec.getSize());
-            response.setWeight(spec.getWeight());
-            response.setDimensions(spec.getDimensions());
-            response.setMaterial(spec.getMaterial());
-            response.setWarranty(spec.getWarranty());
-            response.setCountryOfOrigin(spec.getCountryOfOrigin());
-            response.setShippingWeight(spec.getShippingWeight());
-            response.setManufacturer(spec.getManufacturer());
-            response.setCareInstructions(spec.getCareInstructions());
-            response.setIncludedComponents(spec.getIncludedComponents());
-            response.setRecommendedAgeRange(spec.getRecommendedAgeRange());
-        }
-
-        return response;
+    /**
+     * State carried between cursor pages, encoded as URL-safe base64 JSON
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class SearchCursor {
+        private String pointInTimeId;
+        private String query;
+        private Long categoryId;
+        private List<Object> searchAfter;
     }
 }
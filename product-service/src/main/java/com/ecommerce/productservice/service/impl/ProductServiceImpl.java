@@ -1,26 +1,59 @@
 package com.ecommerce.productservice.service.impl;
 
+import com.ecommerce.productservice.cache.CategoryHierarchyCache;
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.cache.SearchResultCache;
+import com.ecommerce.productservice.dto.FacetedSearchResponse;
+import com.ecommerce.productservice.dto.ProductCursorPage;
 import com.ecommerce.productservice.dto.ProductRequest;
 import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.ProductSearchFilter;
 import com.ecommerce.productservice.dto.StockReduceRequest;
+import com.ecommerce.productservice.dto.StockReduceResult;
+import com.ecommerce.productservice.dto.event.ProductChangedEvent;
 import com.ecommerce.productservice.entity.Category;
 import com.ecommerce.productservice.entity.Product;
 import com.ecommerce.productservice.entity.ProductSpecification;
 import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.mapper.ProductMapper;
 import com.ecommerce.productservice.repository.CategoryRepository;
 import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductStockLevel;
+import com.ecommerce.productservice.repository.ProductVersion;
+import com.ecommerce.productservice.service.CategoryStatsService;
+import com.ecommerce.productservice.service.EventPublisherService;
+import com.ecommerce.productservice.service.ProductOutboxService;
 import com.ecommerce.productservice.service.ProductSearchService;
 import com.ecommerce.productservice.service.ProductService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,42 +61,116 @@ import java.util.stream.Collectors;
 public class ProductServiceImpl implements ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
 
+    private static final int EXPORT_PAGE_SIZE = 500;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductSearchService productSearchService;
-    private final ModelMapper modelMapper;
+    private final ProductOutboxService productOutboxService;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ProductResponseCache productResponseCache;
+    private final EventPublisherService eventPublisherService;
+    private final CategoryHierarchyCache categoryHierarchyCache;
+    private final SearchResultCache searchResultCache;
+    private final CategoryStatsService categoryStatsService;
 
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        logger.debug("Fetching all products");
-        List<ProductResponse> products = productRepository.findAll().stream()
+    public List<ProductResponse> getProductsAfter(Long afterId, int limit) {
+        long cursor = afterId != null ? afterId : 0L;
+        logger.debug("Fetching up to {} products after id: {}", limit, cursor);
+        List<ProductResponse> products = productRepository.findPageAfter(cursor, PageRequest.of(0, limit)).stream()
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
-        logger.info("Successfully retrieved {} products", products.size());
+        logger.info("Successfully retrieved {} products after id: {}", products.size(), cursor);
         return products;
     }
 
     @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<ProductResponse> consumer) {
+        logger.debug("Streaming all products");
+        long count = 0;
+        // Keyset pages rather than a row cursor: image collections are batch-fetched per page,
+        // which a one-row-at-a-time cursor cannot do
+        long cursor = 0;
+        while (true) {
+            List<Product> page = productRepository.findPageAfter(cursor, PageRequest.of(0, EXPORT_PAGE_SIZE));
+            for (Product product : page) {
+                consumer.accept(mapToDto(product));
+                count++;
+            }
+            if (page.size() < EXPORT_PAGE_SIZE) {
+                break;
+            }
+            cursor = page.get(page.size() - 1).getId();
+            // Clear so the persistence context does not grow with the catalog
+            entityManager.clear();
+        }
+        logger.info("Successfully streamed {} products", count);
+    }
+
     public ProductResponse getProductById(Long id) {
         logger.debug("Fetching product with id: {}", id);
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("Product not found with id: {}", id);
-                    return new ResourceNotFoundException("Product not found with id: " + id);
-                });
+        ProductResponse response = productResponseCache.get(id, this::loadProductById);
         logger.debug("Successfully retrieved product with id: {}", id);
-        return mapToDto(product);
+        return response;
+    }
+
+    /**
+     * Strong entity tag for GET /api/products/{id}, taken from the near cache when the
+     * response is there and otherwise from a narrow projection, so revalidation neither
+     * loads the entity nor runs the mapper.
+     */
+    public String getProductEtag(Long id) {
+        ProductResponse cached = productResponseCache.getIfPresent(id);
+        if (cached != null) {
+            return getProductEtag(cached);
+        }
+        ProductVersion version = productRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        int stock = version.getStockQuantity() != null ? version.getStockQuantity() : 0;
+        int reserved = version.getReservedQuantity() != null ? version.getReservedQuantity() : 0;
+        return productEtag(id, version.getUpdatedAt(), version.getStockQuantity(),
+                Math.max(0, stock - reserved), version.getCategoryName());
+    }
+
+    public String getProductEtag(ProductResponse product) {
+        return productEtag(product.getId(), product.getUpdatedAt(), product.getStockQuantity(),
+                product.getAvailableQuantity(), product.getCategoryName());
+    }
+
+    // Reservations move availability without touching updated_at, so it is part of the tag
+    private static String productEtag(Long id, LocalDateTime updatedAt, Integer stock, Integer available,
+                                      String categoryName) {
+        // Microseconds, the precision the column stores
+        long updated = updatedAt != null
+                ? updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000
+                : 0;
+        return "p" + id + "-" + updated + "-" + stock + "-" + available + "-"
+                + Integer.toHexString(Objects.hashCode(categoryName));
+    }
+
+    public Map<Long, ProductResponse> getProductsByIds(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        logger.debug("Fetching {} products by id", distinctIds.size());
+        if (distinctIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Map<Long, ProductResponse> products = productResponseCache.getAll(distinctIds, this::loadProductsByIds);
+        logger.debug("Found {} of {} requested products", products.size(), distinctIds.size());
+        return products;
     }
 
     @Transactional(readOnly = true)
     public List<ProductResponse> getProductsByCategoryId(Long categoryId) {
         logger.debug("Fetching products for category id: {}", categoryId);
 
-        List<Category> categories = categoryRepository.findCategoryAndChildren(categoryId);
-        List<Long> categoryIds = categories.stream()
-                .map(Category::getId)
-                .collect(Collectors.toList());
-        logger.debug("Found {} categories including children", categoryIds.size());
+        List<Long> categoryIds = new ArrayList<>(categoryHierarchyCache.getSubtreeIds(categoryId));
+        logger.debug("Found {} categories including descendants", categoryIds.size());
+        if (categoryIds.isEmpty()) {
+            return Collections.emptyList();
+        }
 
         List<Product> products = productRepository.findByCategoryIdIn(categoryIds);
         logger.info("Found {} products in category id: {}", products.size(), categoryId);
@@ -125,13 +232,12 @@ public class ProductServiceImpl implements ProductService {
         Product savedProduct = productRepository.save(product);
         logger.info("Successfully saved product with ID: {}", savedProduct.getId());
 
-        try {
-            logger.debug("Indexing product in Elasticsearch");
-            productSearchService.indexProduct(savedProduct);
-            logger.debug("Successfully indexed product in Elasticsearch");
-        } catch (Exception e) {
-            logger.error("Failed to index product with ID: " + savedProduct.getId(), e);
-        }
+        categoryStatsService.productAdded(categoryId(savedProduct),
+                Boolean.TRUE.equals(savedProduct.getIsActive()), inStock(savedProduct.getStockQuantity()));
+
+        // Indexed asynchronously by the outbox relay once this transaction commits
+        productOutboxService.enqueueIndex(savedProduct.getId());
+        publishChanges(List.of(ProductChangedEvent.of(savedProduct)));
 
         logger.debug("Mapping product to DTO");
         ProductResponse response = mapToDto(savedProduct);
@@ -153,6 +259,11 @@ public class ProductServiceImpl implements ProductService {
                     return new ResourceNotFoundException("Product not found with id: " + id);
                 });
         logger.debug("Found existing product: {}", existingProduct.getName());
+        String previousName = existingProduct.getName();
+        BigDecimal previousPrice = existingProduct.getPrice();
+        Integer previousStock = existingProduct.getStockQuantity();
+        Boolean previousActive = existingProduct.getIsActive();
+        Long previousCategoryId = categoryId(existingProduct);
 
         logger.debug("Updating product fields");
         if (!existingProduct.getName().equals(productRequest.getName())) {
@@ -210,15 +321,20 @@ public class ProductServiceImpl implements ProductService {
 
         logger.debug("Saving updated product to database");
         Product updatedProduct = productRepository.save(existingProduct);
+        if (updatedProduct.getStripeCount() != null && updatedProduct.getStripeCount() > 0) {
+            // The new on-hand stock has to reach the stripes, which are what checkouts decrement
+            productRepository.flush();
+            productRepository.restockStripes(updatedProduct.getId());
+        }
+        categoryStatsService.productChanged(
+                previousCategoryId, Boolean.TRUE.equals(previousActive), inStock(previousStock),
+                categoryId(updatedProduct), Boolean.TRUE.equals(updatedProduct.getIsActive()),
+                inStock(updatedProduct.getStockQuantity()));
         logger.info("Successfully updated product with ID: {}", updatedProduct.getId());
+        invalidateProducts(List.of(id), List.of(changesBetween(
+                previousName, previousPrice, previousStock, previousActive, updatedProduct)));
 
-        try {
-            logger.debug("Updating product in Elasticsearch index");
-            productSearchService.indexProduct(updatedProduct);
-            logger.debug("Successfully updated product in Elasticsearch index");
-        } catch (Exception e) {
-            logger.error("Failed to update product in search index with ID: " + id, e);
-        }
+        productOutboxService.enqueueIndex(updatedProduct.getId());
 
         logger.debug("Mapping updated product to DTO");
         ProductResponse response = mapToDto(updatedProduct);
@@ -232,83 +348,179 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Transactional
-    public void reduceStockBatch(List<StockReduceRequest> requests) {
+    public List<StockReduceResult> reduceStockBatch(List<StockReduceRequest> requests) {
+        // Merge duplicate lines and order by id so concurrent batches lock rows in the same order
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
         for (StockReduceRequest req : requests) {
-            logger.info("Reducing stock quantity for product with ID: {}", req.getProductId());
-            Product product = productRepository.findById(req.getProductId())
-                    .orElseThrow();
-            if (product.getStockQuantity() < req.getQuantity()) {
-                throw new IllegalStateException("Insufficient stock");
+            if (req.getProductId() == null || req.getQuantity() == null || req.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid stock reduce request: " + req);
             }
-            product.setStockQuantity(product.getStockQuantity() - req.getQuantity());
+            quantities.merge(req.getProductId(), req.getQuantity(), Integer::sum);
+        }
+        logger.info("Reducing stock for {} products", quantities.size());
+
+        Map<Long, Boolean> applied = productRepository.decrementStock(quantities);
+        List<StockReduceResult> results = applied.entrySet().stream()
+                .map(e -> new StockReduceResult(e.getKey(), quantities.get(e.getKey()), e.getValue()))
+                .collect(Collectors.toList());
+
+        if (applied.containsValue(false)) {
+            logger.warn("Insufficient stock, rolling back batch: {}", results);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        } else {
+            quantities.keySet().forEach(productOutboxService::enqueueIndex);
+            List<ProductStockLevel> levels = productRepository.findStockLevels(quantities.keySet());
+            // A decrement that leaves zero is the only way this batch can move a stock count
+            levels.stream()
+                    .filter(level -> level.getStockQuantity() != null && level.getStockQuantity() == 0)
+                    .forEach(level -> categoryStatsService.stockChanged(level.getCategoryId(), true, false));
+            invalidateProducts(quantities.keySet(), stockChanges(levels));
         }
+        return results;
     }
 
     @Transactional
     public void deleteProduct(Long id) {
         logger.info("Deleting product with ID: {}", id);
         
-        if (!productRepository.existsById(id)) {
+        Product product = productRepository.findById(id).orElseThrow(() -> {
             logger.warn("Product not found for deletion with ID: {}", id);
-            throw new ResourceNotFoundException("Product not found with id: " + id);
-        }
-        
+            return new ResourceNotFoundException("Product not found with id: " + id);
+        });
+
         logger.debug("Deleting product from database");
-        productRepository.deleteById(id);
+        categoryStatsService.productRemoved(categoryId(product),
+                Boolean.TRUE.equals(product.getIsActive()), inStock(product.getStockQuantity()));
+        productRepository.delete(product);
         logger.info("Successfully deleted product with ID: {}", id);
-        
-        try {
-            logger.debug("Deleting product from Elasticsearch index");
-            productSearchService.deleteProductFromIndex(id);
-            logger.debug("Successfully deleted product from Elasticsearch index");
-        } catch (Exception e) {
-            logger.error("Failed to delete product from search index with ID: " + id, e);
-        }
+        invalidateProducts(List.of(id), List.of(ProductChangedEvent.deactivated(id)));
+        productOutboxService.enqueueDelete(id);
     }
     
-    @Transactional(readOnly = true)
+    // Search pages come from Elasticsearch through the shared Redis result cache
     public Page<ProductResponse> searchProducts(String query, Pageable pageable) {
-        return productSearchService.searchProducts(query, pageable);
+        return searchResultCache.get(query, null, pageable,
+                () -> productSearchService.searchProducts(query, pageable));
     }
     
-    @Transactional(readOnly = true)
     public Page<ProductResponse> searchProductsByCategory(Long categoryId, String query, Pageable pageable) {
         if (categoryId == null) {
             return searchProducts(query, pageable);
         }
-        return productSearchService.searchByCategory(categoryId, query, pageable);
+        return searchResultCache.get(query, categoryId, pageable,
+                () -> productSearchService.searchByCategory(categoryId, query, pageable));
     }
     
-    @Transactional(readOnly = true)
+    // Deep pages are not cached; each cursor is single-use and tied to a point in time
+    public ProductCursorPage searchProductsAfter(String query, Long categoryId, String cursor, int size) {
+        return productSearchService.searchAfter(query, categoryId, cursor, size);
+    }
+
+    public FacetedSearchResponse searchProductsFaceted(ProductSearchFilter filter, Pageable pageable) {
+        return productSearchService.facetedSearch(filter, pageable);
+    }
+
+    // Served from Elasticsearch and the prefix cache; no database transaction needed
     public List<String> autocompleteSearch(String query) {
         return productSearchService.autocomplete(query);
     }
 
-    private ProductResponse mapToDto(Product product) {
-        ProductResponse response = modelMapper.map(product, ProductResponse.class);
-        if (product.getCategory() != null) {
-            response.setCategoryName(product.getCategory().getName());
+    private ProductResponse loadProductById(Long id) {
+        // Only cache misses open a transaction and touch the database
+        return readOnlyTransaction().execute(status -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> {
+                        logger.warn("Product not found with id: {}", id);
+                        return new ResourceNotFoundException("Product not found with id: " + id);
+                    });
+            return mapToDto(product);
+        });
+    }
+
+    private Map<Long, ProductResponse> loadProductsByIds(List<Long> ids) {
+        return readOnlyTransaction().execute(status -> {
+            Map<Long, ProductResponse> products = new LinkedHashMap<>();
+            for (Product product : productRepository.findByIds(ids)) {
+                products.put(product.getId(), mapToDto(product));
+            }
+            return products;
+        });
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    // Publish change events for downstream projections once the surrounding transaction has committed
+    private void publishChanges(List<ProductChangedEvent> changes) {
+        afterCommit(() -> eventPublisherService.publishProductChanges(changes));
+    }
+
+    /**
+     * Evict the given products from this replica's near cache and tell the other
+     * replicas to do the same, once the surrounding transaction has committed.
+     * Downstream projections are notified at the same point, when the change is durable.
+     */
+    private void invalidateProducts(Collection<Long> productIds, List<ProductChangedEvent> changes) {
+        afterCommit(() -> {
+            productResponseCache.evictAll(productIds);
+            eventPublisherService.publishProductInvalidation(productIds);
+            eventPublisherService.publishProductChanges(changes);
+        });
+    }
+
+    private static Long categoryId(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    private static boolean inStock(Integer stockQuantity) {
+        return stockQuantity != null && stockQuantity > 0;
+    }
+
+    private static List<ProductChangedEvent> stockChanges(List<ProductStockLevel> levels) {
+        return levels.stream()
+                .map(level -> ProductChangedEvent.stock(level.getId(), level.getStockQuantity(), level.getReservedQuantity()))
+                .collect(Collectors.toList());
+    }
+
+    private static ProductChangedEvent changesBetween(String previousName, BigDecimal previousPrice,
+                                                      Integer previousStock, Boolean previousActive, Product product) {
+        ProductChangedEvent.ProductChangedEventBuilder event = ProductChangedEvent.builder()
+                .productId(product.getId())
+                .changedAt(System.currentTimeMillis());
+        if (!Objects.equals(previousName, product.getName())) {
+            event.name(product.getName());
         }
+        if (previousPrice == null || product.getPrice() == null
+                ? previousPrice != product.getPrice()
+                : previousPrice.compareTo(product.getPrice()) != 0) {
+            event.price(product.getPrice());
+        }
+        if (!Objects.equals(previousStock, product.getStockQuantity())) {
+            event.stockQuantity(product.getStockQuantity()).availableQuantity(product.getAvailableQuantity());
+        }
+        if (!Objects.equals(previousActive, product.getIsActive())) {
+            event.active(product.getIsActive());
+        }
+        return event.build();
+    }
 
-        // Map specification fields
-        if (product.getSpecification() != null) {
-            ProductSpecification spec = product.getSpecification();
-            response.setBrand(spec.getBrand());
-            response.setModel(spec.getModel());
-            response.setColor(spec.getColor());
-            response.setSize(spec.getSize());
-            response.setWeight(spec.getWeight());
-            response.setDimensions(spec.getDimensions());
-            response.setMaterial(spec.getMaterial());
-            response.setWarranty(spec.getWarranty());
-            response.setCountryOfOrigin(spec.getCountryOfOrigin());
-            response.setShippingWeight(spec.getShippingWeight());
-            response.setManufacturer(spec.getManufacturer());
-            response.setCareInstructions(spec.getCareInstructions());
-            response.setIncludedComponents(spec.getIncludedComponents());
-            response.setRecommendedAgeRange(spec.getRecommendedAgeRange());
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
+    }
 
-        return response;
+    private ProductResponse mapToDto(Product product) {
+        return productMapper.toResponse(product);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.dto.StockReduceRequest;
+import com.ecommerce.productservice.dto.StockReduceResult;
+import com.ecommerce.productservice.dto.StockReservationRequest;
+import com.ecommerce.productservice.dto.StockReservationResult;
+import com.ecommerce.productservice.dto.event.ProductChangedEvent;
+import com.ecommerce.productservice.entity.StockReservation;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.StockReservationRepository;
+import com.ecommerce.productservice.service.CategoryStatsService;
+import com.ecommerce.productservice.service.EventPublisherService;
+import com.ecommerce.productservice.service.ProductOutboxService;
+import com.ecommerce.productservice.service.StockReservationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Holds stock for orders between creation and payment. A hold raises the product's
+ * reserved quantity, so availability is always on-hand minus held in a single row and
+ * no reservation scan is needed on reads. Payment success commits the hold into a stock
+ * decrement, payment failure or cancellation releases it, and a sweeper releases holds
+ * whose order never reached either outcome.
+ */
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final ProductOutboxService productOutboxService;
+    private final ProductResponseCache productResponseCache;
+    private final EventPublisherService eventPublisherService;
+    private final CategoryStatsService categoryStatsService;
+    private final Duration ttl;
+    private final int sweepBatchSize;
+
+    public StockReservationServiceImpl(
+            StockReservationRepository reservationRepository,
+            ProductRepository productRepository,
+            ProductOutboxService productOutboxService,
+            ProductResponseCache productResponseCache,
+            EventPublisherService eventPublisherService,
+            CategoryStatsService categoryStatsService,
+            @Value("${product.reservation.ttl-seconds:420}") long ttlSeconds,
+            @Value("${product.reservation.sweep-batch-size:500}") int sweepBatchSize) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.productOutboxService = productOutboxService;
+        this.productResponseCache = productResponseCache;
+        this.eventPublisherService = eventPublisherService;
+        this.categoryStatsService = categoryStatsService;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    /**
+     * Hold every line of the order or none of them. Retrying an order that already has
+     * reservations returns their current state instead of holding stock twice.
+     */
+    @Transactional
+    public StockReservationResult reserve(StockReservationRequest request) {
+        Long orderId = request.getOrderId();
+        // Without the lock two concurrent retries both see no holds and one fails on the unique constraint
+        reservationRepository.lockOrder(orderId);
+        List<StockReservation> existing = reservationRepository.findByOrderId(orderId);
+        if (!existing.isEmpty()) {
+            logger.info("Order {} already has {} reservations, returning them", orderId, existing.size());
+            return toResult(orderId, existing);
+        }
+
+        // Merge duplicate lines and order by id so concurrent holds lock rows in the same order
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (StockReduceRequest item : request.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid stock reservation item: " + item);
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        logger.info("Reserving stock for order {} across {} products", orderId, quantities.size());
+
+        Map<Long, Boolean> applied = productRepository.reserveStock(quantities);
+        List<StockReduceResult> items = applied.entrySet().stream()
+                .map(e -> new StockReduceResult(e.getKey(), quantities.get(e.getKey()), e.getValue()))
+                .collect(Collectors.toList());
+
+        if (applied.containsValue(false)) {
+            logger.warn("Insufficient available stock for order {}, rolling back holds: {}", orderId, items);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return StockReservationResult.builder().orderId(orderId).success(false).items(items).build();
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        List<StockReservation> reservations = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            StockReservation reservation = new StockReservation();
+            reservation.setOrderId(orderId);
+            reservation.setProductId(productId);
+            reservation.setQuantity(quantity);
+            reservation.setExpiresAt(expiresAt);
+            reservations.add(reservation);
+        });
+        reservationRepository.saveAll(reservations);
+        invalidateProducts(quantities.keySet());
+
+        return StockReservationResult.builder()
+                .orderId(orderId)
+                .success(true)
+                .expiresAt(expiresAt)
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Convert the order's holds into a stock decrement. Committing twice is a no-op; if the
+     * holds already expired or were released the result is unsuccessful and the caller
+     * falls back to a conditional decrement.
+     */
+    @Transactional
+    public StockReservationResult commit(Long orderId) {
+        List<StockReservation> held = reservationRepository.lockByOrderIdAndStatus(orderId, StockReservation.Status.HELD);
+        if (held.isEmpty()) {
+            List<StockReservation> existing = reservationRepository.findByOrderId(orderId);
+            boolean committed = !existing.isEmpty() && existing.stream()
+                    .allMatch(r -> r.getStatus() == StockReservation.Status.COMMITTED);
+            if (!committed) {
+                logger.warn("No held reservations to commit for order {}", orderId);
+            }
+            return StockReservationResult.builder()
+                    .orderId(orderId)
+                    .success(committed)
+                    .items(toItems(existing, committed))
+                    .build();
+        }
+
+        SortedMap<Long, Integer> quantities = quantities(held);
+        productRepository.commitReserved(quantities);
+        held.forEach(r -> r.setStatus(StockReservation.Status.COMMITTED));
+        // Committing a hold only ever lowers stock, so reaching zero means the product sold out
+        productRepository.findStockLevels(quantities.keySet()).stream()
+                .filter(level -> level.getStockQuantity() != null && level.getStockQuantity() == 0)
+                .forEach(level -> categoryStatsService.stockChanged(level.getCategoryId(), true, false));
+        logger.info("Committed {} reservations for order {}", held.size(), orderId);
+
+        quantities.keySet().forEach(productOutboxService::enqueueIndex);
+        invalidateProducts(quantities.keySet());
+        return StockReservationResult.builder()
+                .orderId(orderId)
+                .success(true)
+                .items(toItems(held, true))
+                .build();
+    }
+
+    @Transactional
+    public void release(Long orderId) {
+        List<StockReservation> held = reservationRepository.lockByOrderIdAndStatus(orderId, StockReservation.Status.HELD);
+        if (held.isEmpty()) {
+            logger.debug("No held reservations to release for order {}", orderId);
+            return;
+        }
+        releaseHolds(held, StockReservation.Status.RELEASED);
+        logger.info("Released {} reservations for order {}", held.size(), orderId);
+    }
+
+    /**
+     * Release holds past their expiry, one bounded batch per run. The claim query walks the
+     * (status, expires_at) index and skips rows locked by another replica's sweep or by an
+     * in-flight commit, so the sweeper never blocks order processing.
+     */
+    @Scheduled(fixedDelayString = "${product.reservation.sweep-interval-ms:5000}")
+    @Transactional
+    public void expireReservations() {
+        List<StockReservation> expired = reservationRepository.lockExpiredBatch(LocalDateTime.now(), sweepBatchSize);
+        if (expired.isEmpty()) {
+            return;
+        }
+        releaseHolds(expired, StockReservation.Status.EXPIRED);
+        logger.info("Expired {} stale stock reservations", expired.size());
+    }
+
+    private void releaseHolds(List<StockReservation> reservations, StockReservation.Status status) {
+        SortedMap<Long, Integer> quantities = quantities(reservations);
+        productRepository.releaseReserved(quantities);
+        reservations.forEach(r -> r.setStatus(status));
+        reservationRepository.saveAll(reservations);
+        invalidateProducts(quantities.keySet());
+    }
+
+    private static SortedMap<Long, Integer> quantities(List<StockReservation> reservations) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        reservations.forEach(r -> quantities.merge(r.getProductId(), r.getQuantity(), Integer::sum));
+        return quantities;
+    }
+
+    private static StockReservationResult toResult(Long orderId, List<StockReservation> reservations) {
+        boolean active = reservations.stream().allMatch(r -> r.getStatus() == StockReservation.Status.HELD
+                || r.getStatus() == StockReservation.Status.COMMITTED);
+        LocalDateTime expiresAt = reservations.stream()
+                .map(StockReservation::getExpiresAt)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+        return StockReservationResult.builder()
+                .orderId(orderId)
+                .success(active)
+                .expiresAt(expiresAt)
+                .items(toItems(reservations, active))
+                .build();
+    }
+
+    private static List<StockReduceResult> toItems(List<StockReservation> reservations, boolean success) {
+        return reservations.stream()
+                .map(r -> new StockReduceResult(r.getProductId(), r.getQuantity(), success))
+                .collect(Collectors.toList());
+    }
+
+    // Availability is part of the cached product response and of the change stream
+    private void invalidateProducts(Collection<Long> productIds) {
+        List<ProductChangedEvent> changes = productRepository.findStockLevels(productIds).stream()
+                .map(level -> ProductChangedEvent.stock(level.getId(), level.getStockQuantity(), level.getReservedQuantity()))
+                .collect(Collectors.toList());
+        Runnable invalidate = () -> {
+            productResponseCache.evictAll(productIds);
+            eventPublisherService.publishProductInvalidation(productIds);
+            eventPublisherService.publishProductChanges(changes);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+}
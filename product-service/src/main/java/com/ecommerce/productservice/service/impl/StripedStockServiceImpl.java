@@ -0,0 +1,128 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.dto.event.ProductChangedEvent;
+import com.ecommerce.productservice.exception.ResourceNotFoundException;
+import com.ecommerce.productservice.mapper.ProductMapper;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.repository.ProductStockLevel;
+import com.ecommerce.productservice.service.CategoryStatsService;
+import com.ecommerce.productservice.service.EventPublisherService;
+import com.ecommerce.productservice.service.ProductOutboxService;
+import com.ecommerce.productservice.service.StripedStockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in striped inventory for flash-sale SKUs. A striped product's available stock lives
+ * in several sub-counter rows that checkouts decrement round-robin (see
+ * ProductStockRepository), so concurrent decrements stop serializing on one row lock.
+ * A background pass evens out the stripes and folds their total back into the product
+ * row, which is what product reads and the search index report.
+ */
+@Service
+public class StripedStockServiceImpl implements StripedStockService {
+    private static final Logger logger = LoggerFactory.getLogger(StripedStockServiceImpl.class);
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductOutboxService productOutboxService;
+    private final ProductResponseCache productResponseCache;
+    private final EventPublisherService eventPublisherService;
+    private final CategoryStatsService categoryStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxStripes;
+
+    public StripedStockServiceImpl(
+            ProductRepository productRepository,
+            ProductMapper productMapper,
+            ProductOutboxService productOutboxService,
+            ProductResponseCache productResponseCache,
+            EventPublisherService eventPublisherService,
+            CategoryStatsService categoryStatsService,
+            PlatformTransactionManager transactionManager,
+            @Value("${product.inventory.max-stripes:64}") int maxStripes) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productOutboxService = productOutboxService;
+        this.productResponseCache = productResponseCache;
+        this.eventPublisherService = eventPublisherService;
+        this.categoryStatsService = categoryStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxStripes = maxStripes;
+    }
+
+    /**
+     * Enable, resize or (with 0) disable striping for a product, preserving its stock.
+     */
+    public ProductResponse configureStripes(Long productId, int stripeCount) {
+        if (stripeCount < 0 || stripeCount > maxStripes) {
+            throw new IllegalArgumentException("Stripe count must be between 0 and " + maxStripes);
+        }
+        ProductResponse response = transactionTemplate.execute(status -> {
+            if (!productRepository.existsById(productId)) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            productRepository.stripeStock(productId, stripeCount);
+            productOutboxService.enqueueIndex(productId);
+            return productRepository.findById(productId).map(productMapper::toResponse).orElseThrow();
+        });
+        logger.info("Product {} now uses {} stock stripes", productId, stripeCount);
+        invalidate(List.of(productId));
+        return response;
+    }
+
+    // Every replica runs the pass; locked stripes are skipped, so passes never block checkouts
+    @Scheduled(fixedDelayString = "${product.inventory.rebalance-interval-ms:1000}")
+    public void rebalance() {
+        List<Long> productIds = productRepository.findStripedIds();
+        List<Long> changed = new ArrayList<>();
+        for (Long productId : productIds) {
+            try {
+                Boolean updated = transactionTemplate.execute(status -> {
+                    boolean wasInStock = inStock(productId);
+                    boolean rowChanged = productRepository.rebalanceStripes(productId);
+                    if (rowChanged) {
+                        productOutboxService.enqueueIndex(productId);
+                        ProductStockLevel level = productRepository.findStockLevels(List.of(productId)).get(0);
+                        categoryStatsService.stockChanged(level.getCategoryId(), wasInStock,
+                                level.getStockQuantity() != null && level.getStockQuantity() > 0);
+                    }
+                    return rowChanged;
+                });
+                if (Boolean.TRUE.equals(updated)) {
+                    changed.add(productId);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to rebalance stock stripes for product {}: {}", productId, e.getMessage());
+            }
+        }
+        if (!changed.isEmpty()) {
+            logger.debug("Folded stripe totals into {} striped products", changed.size());
+            invalidate(changed);
+        }
+    }
+
+    private boolean inStock(Long productId) {
+        List<ProductStockLevel> levels = productRepository.findStockLevels(List.of(productId));
+        return !levels.isEmpty() && levels.get(0).getStockQuantity() != null && levels.get(0).getStockQuantity() > 0;
+    }
+
+    private void invalidate(List<Long> productIds) {
+        productResponseCache.evictAll(productIds);
+        eventPublisherService.publishProductInvalidation(productIds);
+        eventPublisherService.publishProductChanges(productRepository.findStockLevels(productIds).stream()
+                .map(level -> ProductChangedEvent.stock(level.getId(), level.getStockQuantity(), level.getReservedQuantity()))
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.productservice.mapper;
+
+import com.ecommerce.productservice.dto.CategoryRequest;
+import com.ecommerce.productservice.dto.CategoryResponse;
+import com.ecommerce.productservice.entity.Category;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryMapperTest {
+
+    private final CategoryMapper categoryMapper = new CategoryMapperImpl();
+
+    @Test
+    void mapsCategoryWithParentIdAndLeavesChildrenToTheCaller() {
+        Category parent = new Category();
+        parent.setId(1L);
+        parent.setName("Electronics");
+
+        Category category = new Category();
+        category.setId(2L);
+        category.setName("Audio");
+        category.setDescription("Headphones and speakers");
+        category.setImageUrl("https://img.example.com/audio.jpg");
+        category.setParent(parent);
+        category.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        category.setUpdatedAt(LocalDateTime.of(2024, 6, 7, 8, 9, 10));
+        Category child = new Category();
+        child.setId(3L);
+        category.getChildren().add(child);
+
+        CategoryResponse response = categoryMapper.toResponse(category);
+
+        assertThat(response.getId()).isEqualTo(2L);
+        assertThat(response.getName()).isEqualTo("Audio");
+        assertThat(response.getDescription()).isEqualTo("Headphones and speakers");
+        assertThat(response.getImageUrl()).isEqualTo("https://img.example.com/audio.jpg");
+        assertThat(response.getParentId()).isEqualTo(1L);
+        assertThat(response.getCreatedAt()).isEqualTo(category.getCreatedAt());
+        assertThat(response.getUpdatedAt()).isEqualTo(category.getUpdatedAt());
+        assertThat(response.getChildren()).isNull();
+        assertThat(response.getProductCount()).isNull();
+    }
+
+    @Test
+    void mapsRootCategoryWithoutParentId() {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Electronics");
+
+        assertThat(categoryMapper.toResponse(category).getParentId()).isNull();
+    }
+
+    @Test
+    void mapsRequestToNewEntity() {
+        CategoryRequest request = new CategoryRequest();
+        request.setName("Audio");
+        request.setDescription("Headphones and speakers");
+        request.setImageUrl("https://img.example.com/audio.jpg");
+        request.setParentId(1L);
+
+        Category category = categoryMapper.toEntity(request);
+
+        assertThat(category.getId()).isNull();
+        assertThat(category.getName()).isEqualTo("Audio");
+        assertThat(category.getDescription()).isEqualTo("Headphones and speakers");
+        assertThat(category.getImageUrl()).isEqualTo("https://img.example.com/audio.jpg");
+        // The parent is resolved by the service, which has to check that it exists
+        assertThat(category.getParent()).isNull();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.productservice.mapper;
+
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.entity.Category;
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.entity.ProductSpecification;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product to response mapping: the generated {@link ProductMapperImpl} against the STRICT
+ * ModelMapper plus hand-copied specification it replaced. Not part of the test run:
+ *
+ * <pre>
+ * mvn -pl product-service test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ProductMapperBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private ModelMapper modelMapper;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Headphones");
+
+        ProductSpecification specification = new ProductSpecification();
+        specification.setBrand("Sony");
+        specification.setModel("WH-1000XM5");
+        specification.setColor("Black");
+        specification.setWeight("250g");
+        specification.setDimensions("27 x 20 x 8 cm");
+        specification.setMaterial("Plastic");
+        specification.setWarranty("2 years");
+        specification.setCountryOfOrigin("Malaysia");
+        specification.setShippingWeight(new BigDecimal("0.9"));
+        specification.setManufacturer("Sony Corporation");
+        specification.setIncludedComponents("Case, USB-C cable, audio cable");
+
+        product = new Product();
+        product.setId(1234L);
+        product.setName("Wireless Noise Cancelling Headphones");
+        product.setDescription("Industry-leading noise cancellation with 30 hours of battery life.");
+        product.setPrice(new BigDecimal("349.99"));
+        product.setStockQuantity(120);
+        product.setReservedQuantity(4);
+        product.setSku("WH-1000XM5-BLK");
+        product.setImageUrls(Set.of("https://cdn.example.com/1234/main.jpg", "https://cdn.example.com/1234/side.jpg"));
+        product.setCategory(category);
+        product.setSpecification(specification);
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        product.setUpdatedAt(LocalDateTime.of(2024, 6, 7, 8, 9, 10));
+    }
+
+    @Benchmark
+    public ProductResponse mapStruct() {
+        return productMapper.toResponse(product);
+    }
+
+    @Benchmark
+    public ProductResponse modelMapper() {
+        ProductResponse response = modelMapper.map(product, ProductResponse.class);
+        response.setCategoryName(product.getCategory().getName());
+        ProductSpecification spec = product.getSpecification();
+        response.setBrand(spec.getBrand());
+        response.setModel(spec.getModel());
+        response.setColor(spec.getColor());
+        response.setSize(spec.getSize());
+        response.setWeight(spec.getWeight());
+        response.setDimensions(spec.getDimensions());
+        response.setMaterial(spec.getMaterial());
+        response.setWarranty(spec.getWarranty());
+        response.setCountryOfOrigin(spec.getCountryOfOrigin());
+        response.setShippingWeight(spec.getShippingWeight());
+        response.setManufacturer(spec.getManufacturer());
+        response.setCareInstructions(spec.getCareInstructions());
+        response.setIncludedComponents(spec.getIncludedComponents());
+        response.setRecommendedAgeRange(spec.getRecommendedAgeRange());
+        return response;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.productservice.mapper;
+
+import com.ecommerce.productservice.document.ProductDocument;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.entity.Category;
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.entity.ProductSpecification;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.util.introspection.PropertyOrFieldSupport.EXTRACTION;
+
+class ProductMapperTest {
+
+    // Every specification field is flattened onto the response; listed reflectively so new ones are covered
+    private static final List<String> SPECIFICATION_FIELDS = Arrays.stream(ProductSpecification.class.getDeclaredFields())
+            .filter(field -> !Modifier.isStatic(field.getModifiers()))
+            .map(Field::getName)
+            .collect(Collectors.toList());
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+
+    @Test
+    void mapsProductWithCategoryNameAndFlattenedSpecification() {
+        Category category = new Category();
+        category.setId(7L);
+        category.setName("Audio");
+
+        Product product = new Product();
+        product.setId(42L);
+        product.setName("Wireless Headphones");
+        product.setDescription("Over-ear, noise cancelling");
+        product.setPrice(new BigDecimal("199.99"));
+        product.setStockQuantity(12);
+        product.setReservedQuantity(5);
+        product.setSku("WH-1000");
+        product.setImageUrls(Set.of("https://img.example.com/wh-1000.jpg"));
+        product.setCategory(category);
+        product.setSpecification(specification());
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        product.setUpdatedAt(LocalDateTime.of(2024, 6, 7, 8, 9, 10));
+
+        ProductResponse response = productMapper.toResponse(product);
+
+        assertThat(response.getId()).isEqualTo(42L);
+        assertThat(response.getName()).isEqualTo("Wireless Headphones");
+        assertThat(response.getDescription()).isEqualTo("Over-ear, noise cancelling");
+        assertThat(response.getPrice()).isEqualByComparingTo("199.99");
+        assertThat(response.getStockQuantity()).isEqualTo(12);
+        assertThat(response.getAvailableQuantity()).isEqualTo(7);
+        assertThat(response.getSku()).isEqualTo("WH-1000");
+        assertThat(response.getImageUrls()).containsExactly("https://img.example.com/wh-1000.jpg");
+        assertThat(response.getCategoryName()).isEqualTo("Audio");
+        assertThat(response.getCreatedAt()).isEqualTo(product.getCreatedAt());
+        assertThat(response.getUpdatedAt()).isEqualTo(product.getUpdatedAt());
+        assertThat(response.getScore()).isNull();
+        assertSpecificationFlattened(product.getSpecification(), response);
+    }
+
+    @Test
+    void mapsProductWithoutCategoryOrSpecification() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Loose item");
+        product.setSpecification(null);
+
+        ProductResponse response = productMapper.toResponse(product);
+
+        assertThat(response.getCategoryName()).isNull();
+        assertThat(SPECIFICATION_FIELDS).allSatisfy(field ->
+                assertThat(EXTRACTION.getValueOf(field, response)).as(field).isNull());
+    }
+
+    @Test
+    void mapsSearchDocumentWithScore() {
+        ProductDocument document = ProductDocument.builder()
+                .id(42L)
+                .name("Wireless Headphones")
+                .description("Over-ear, noise cancelling")
+                .price(new BigDecimal("199.99"))
+                .stockQuantity(12)
+                .sku("WH-1000")
+                .categoryId(7L)
+                .categoryName("Audio")
+                .isActive(true)
+                .brand("Acoustica")
+                .specification(specification())
+                .build();
+
+        ProductResponse response = productMapper.toResponse(document, 3.5f);
+
+        assertThat(response.getId()).isEqualTo(42L);
+        assertThat(response.getName()).isEqualTo("Wireless Headphones");
+        assertThat(response.getDescription()).isEqualTo("Over-ear, noise cancelling");
+        assertThat(response.getPrice()).isEqualByComparingTo("199.99");
+        assertThat(response.getStockQuantity()).isEqualTo(12);
+        assertThat(response.getSku()).isEqualTo("WH-1000");
+        assertThat(response.getCategoryName()).isEqualTo("Audio");
+        assertThat(response.getScore()).isEqualTo(3.5f);
+        assertSpecificationFlattened(document.getSpecification(), response);
+    }
+
+    private static void assertSpecificationFlattened(ProductSpecification specification, ProductResponse response) {
+        assertThat(SPECIFICATION_FIELDS).isNotEmpty().allSatisfy(field ->
+                assertThat(EXTRACTION.getValueOf(field, response)).as(field)
+                        .isNotNull()
+                        .isEqualTo(EXTRACTION.getValueOf(field, specification)));
+    }
+
+    private static ProductSpecification specification() {
+        ProductSpecification specification = new ProductSpecification();
+        specification.setBrand("Acoustica");
+        specification.setModel("WH-1000");
+        specification.setColor("Black");
+        specification.setSize("One size");
+        specification.setWeight("250g");
+        specification.setDimensions("20x18x8 cm");
+        specification.setMaterial("Aluminium");
+        specification.setWarranty("2 years");
+        specification.setCountryOfOrigin("Japan");
+        specification.setShippingWeight(new BigDecimal("0.8"));
+        specification.setManufacturer("Acoustica Ltd");
+        specification.setCareInstructions("Wipe clean");
+        specification.setIncludedComponents("Case, cable");
+        specification.setRecommendedAgeRange("12+");
+        return specification;
+    }
+}
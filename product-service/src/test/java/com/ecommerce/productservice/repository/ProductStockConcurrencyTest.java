@@ -0,0 +1,278 @@
+package com.ecommerce.productservice.repository;
+
+import com.ecommerce.productservice.cache.CategoryHierarchyCache;
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.cache.SearchResultCache;
+import com.ecommerce.productservice.controller.ProductController;
+import com.ecommerce.productservice.dto.StockReduceRequest;
+import com.ecommerce.productservice.dto.StockReduceResult;
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.mapper.ProductMapperImpl;
+import com.ecommerce.productservice.service.CategoryStatsService;
+import com.ecommerce.productservice.service.EventPublisherService;
+import com.ecommerce.productservice.service.ProductImportService;
+import com.ecommerce.productservice.service.ProductOutboxService;
+import com.ecommerce.productservice.service.ProductSearchService;
+import com.ecommerce.productservice.service.StripedStockService;
+import com.ecommerce.productservice.service.impl.ProductServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Many checkouts racing for the same SKUs must sell exactly the available stock, never
+ * oversell, and never leave part of a multi-item order applied. Each decrement runs in its
+ * own transaction, as a reduce-stock request does; every thread has its own connection so
+ * the race is decided by row locks rather than by waiting for the pool.
+ */
+@Import({ProductServiceImpl.class, ProductMapperImpl.class})
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=" + (ProductStockConcurrencyTest.THREADS + 10))
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductStockConcurrencyTest extends PostgresRepositoryTest {
+
+    static final int THREADS = 200;
+    private static final int INITIAL_STOCK = 1000;
+    private static final int BATCH_PRODUCTS = 4;
+    private static final int BATCH_INITIAL_STOCK = 300;
+    private static final int BATCHES_PER_THREAD = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductServiceImpl productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @MockBean
+    private ProductOutboxService productOutboxService;
+
+    @MockBean
+    private ProductResponseCache productResponseCache;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    @MockBean
+    private SearchResultCache searchResultCache;
+
+    @MockBean
+    private CategoryStatsService categoryStatsService;
+
+    @Test
+    void concurrentDecrementsSellExactlyTheInitialStock() throws Exception {
+        Long productId = createProduct(INITIAL_STOCK);
+
+        assertThat(race(productId)).isEqualTo(INITIAL_STOCK);
+        assertThat(stock(productId)).isZero();
+    }
+
+    @Test
+    void concurrentDecrementsOfAStripedProductSellExactlyTheInitialStock() throws Exception {
+        Long productId = createProduct(INITIAL_STOCK);
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> productRepository.stripeStock(productId, 4));
+
+        assertThat(race(productId)).isEqualTo(INITIAL_STOCK);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT MIN(quantity) FROM product_stock_stripes WHERE product_id = ?", Integer.class, productId))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity) FROM product_stock_stripes WHERE product_id = ?", Integer.class, productId))
+                .isZero();
+    }
+
+    @Test
+    void batchWithAShortLineIsRolledBackAndAnsweredWithConflict() {
+        Long plenty = createProduct(10);
+        Long scarce = createProduct(1);
+
+        ResponseEntity<List<StockReduceResult>> response = controller().reduceStockBatch(List.of(
+                new StockReduceRequest(plenty, 3), new StockReduceRequest(scarce, 2)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody())
+                .filteredOn(result -> result.getProductId().equals(scarce))
+                .singleElement()
+                .satisfies(result -> assertThat(result.isSuccess()).isFalse());
+        assertThat(stock(plenty)).isEqualTo(10);
+        assertThat(stock(scarce)).isEqualTo(1);
+    }
+
+    @Test
+    void batchThatFitsIsAppliedToEveryLine() {
+        Long first = createProduct(10);
+        Long second = createProduct(5);
+
+        ResponseEntity<List<StockReduceResult>> response = controller().reduceStockBatch(List.of(
+                new StockReduceRequest(second, 5), new StockReduceRequest(first, 2), new StockReduceRequest(first, 1)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).allMatch(StockReduceResult::isSuccess);
+        assertThat(stock(first)).isEqualTo(7);
+        assertThat(stock(second)).isZero();
+    }
+
+    // A partial decrement would leave a product below its initial stock minus what successful batches took
+    @Test
+    void overlappingMultiItemBatchesNeverLeaveAPartialDecrement() throws Exception {
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < BATCH_PRODUCTS; i++) {
+            productIds.add(createProduct(BATCH_INITIAL_STOCK));
+        }
+        AtomicIntegerArray sold = new AtomicIntegerArray(BATCH_PRODUCTS);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for (int n = 0; n < BATCHES_PER_THREAD; n++) {
+                // Two to four distinct products in random order, so batches overlap in every combination
+                List<Integer> picked = new ArrayList<>(List.of(0, 1, 2, 3));
+                Collections.shuffle(picked, random);
+                picked = picked.subList(0, 2 + random.nextInt(BATCH_PRODUCTS - 1));
+                List<StockReduceRequest> requests = new ArrayList<>();
+                int[] quantities = new int[BATCH_PRODUCTS];
+                for (int index : picked) {
+                    quantities[index] = 1 + random.nextInt(3);
+                    requests.add(new StockReduceRequest(productIds.get(index), quantities[index]));
+                }
+
+                List<StockReduceResult> results = productService.reduceStockBatch(requests);
+                if (results.stream().allMatch(StockReduceResult::isSuccess)) {
+                    applied.incrementAndGet();
+                    for (int index : picked) {
+                        sold.addAndGet(index, quantities[index]);
+                    }
+                } else {
+                    refused.incrementAndGet();
+                }
+            }
+        });
+
+        for (int i = 0; i < BATCH_PRODUCTS; i++) {
+            assertThat(stock(productIds.get(i)))
+                    .isNotNegative()
+                    .isEqualTo(BATCH_INITIAL_STOCK - sold.get(i));
+        }
+        // Demand is well above supply, so both outcomes have to have happened
+        assertThat(applied.get()).isPositive();
+        assertThat(refused.get()).isPositive();
+    }
+
+    // Every thread keeps buying one unit until it is refused; returns the number of successful sales
+    private int race(Long productId) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicBoolean negativeSeen = new AtomicBoolean();
+
+        runConcurrently(thread -> {
+            while (true) {
+                Boolean applied = transactionTemplate.execute(status -> productRepository
+                        .decrementStock(new TreeMap<>(Map.of(productId, 1))).get(productId));
+                if (!Boolean.TRUE.equals(applied)) {
+                    return;
+                }
+                sold.incrementAndGet();
+                if (stock(productId) < 0) {
+                    negativeSeen.set(true);
+                }
+            }
+        });
+
+        assertThat(negativeSeen).isFalse();
+        return sold.get();
+    }
+
+    // Starts every thread at once behind a latch and waits for all of them
+    private void runConcurrently(Worker worker) throws Exception {
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                workers.add(executor.submit((Callable<Void>) () -> {
+                    ready.countDown();
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            assertThat(ready.await(1, TimeUnit.MINUTES)).isTrue();
+            start.countDown();
+            for (Future<?> future : workers) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ProductController controller() {
+        return new ProductController(productService, mock(StripedStockService.class),
+                mock(ProductImportService.class), new ObjectMapper());
+    }
+
+    private Long createProduct(int stock) {
+        Product product = new Product();
+        product.setName("Flash sale item");
+        product.setSku("SKU-" + UUID.randomUUID());
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStockQuantity(stock);
+        return new TransactionTemplate(transactionManager).execute(status -> productRepository.save(product).getId());
+    }
+
+    private int stock(Long productId) {
+        Integer stock = jdbcTemplate.queryForObject(
+                "SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+        return stock != null ? stock : 0;
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.productservice.service.impl;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.Fuzziness;
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Before/after latency of the product search query against a live, populated index: the
+ * old leading-wildcard name clause versus the current n-gram clauses. Runs only when an
+ * Elasticsearch URL is given:
+ *
+ * <pre>
+ * mvn -pl product-service test -Dgroups=benchmark -Dtest=ProductSearchLatencyTest \
+ *     -Dsearch.benchmark.url=http://localhost:9200 [-Dsearch.benchmark.iterations=500]
+ * </pre>
+ *
+ * Logs the server-side took time (p50/p99) and the hit count per query, so both the
+ * speed-up and any change in what matches are visible.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "search.benchmark.url", matches = ".+")
+class ProductSearchLatencyTest {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchLatencyTest.class);
+
+    private static final String INDEX = "products";
+    private static final int WARMUP_ITERATIONS = 50;
+
+    private static RestHighLevelClient client;
+    private static int iterations;
+
+    @BeforeAll
+    static void connect() {
+        client = new RestHighLevelClient(RestClient.builder(HttpHost.create(System.getProperty("search.benchmark.url"))));
+        iterations = Integer.getInteger("search.benchmark.iterations", 500);
+    }
+
+    @AfterAll
+    static void disconnect() throws IOException {
+        client.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a", "ph", "one", "phone", "wireless head", "xm5"})
+    void comparesWildcardAndNgramQueries(String query) throws IOException {
+        Measurement before = measure(query, ProductSearchLatencyTest::wildcardQuery);
+        Measurement after = measure(query, ProductSearchServiceImpl::productQuery);
+
+        logger.info("{} before: p50={}ms p99={}ms hits={}", quoted(query), before.p50, before.p99, before.hits);
+        logger.info("{} after:  p50={}ms p99={}ms hits={}", quoted(query), after.p50, after.p99, after.hits);
+    }
+
+    // The query as it was before the n-gram subfields
+    private static QueryBuilder wildcardQuery(String query) {
+        return QueryBuilders.boolQuery()
+                .should(QueryBuilders.multiMatchQuery(query)
+                        .field("name", 3.0f)
+                        .field("description", 2.0f)
+                        .field("specification.brand", 2.0f)
+                        .field("specification.features")
+                        .type(MultiMatchQueryBuilder.Type.BEST_FIELDS)
+                        .fuzziness(Fuzziness.AUTO)
+                        .prefixLength(2)
+                        .fuzzyTranspositions(true)
+                        .minimumShouldMatch("75%"))
+                .should(QueryBuilders.wildcardQuery("name", "*" + query.toLowerCase() + "*"))
+                .minimumShouldMatch(1);
+    }
+
+    private static Measurement measure(String query, Function<String, QueryBuilder> queryFactory) throws IOException {
+        SearchRequest request = new SearchRequest(INDEX).source(new SearchSourceBuilder()
+                .query(queryFactory.apply(query))
+                .size(20)
+                .trackTotalHits(true))
+                // Every iteration has to run the query rather than hit the request cache
+                .requestCache(false);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            client.search(request, RequestOptions.DEFAULT);
+        }
+        long[] took = new long[iterations];
+        long hits = 0;
+        for (int i = 0; i < iterations; i++) {
+            SearchResponse response = client.search(request, RequestOptions.DEFAULT);
+            took[i] = response.getTook().millis();
+            hits = response.getHits().getTotalHits().value;
+        }
+        Arrays.sort(took);
+        return new Measurement(took[iterations / 2], took[Math.min(iterations - 1, iterations * 99 / 100)], hits);
+    }
+
+    private static String quoted(String query) {
+        return "\"" + query + "\"";
+    }
+
+    private static final class Measurement {
+        final long p50;
+        final long p99;
+        final long hits;
+
+        Measurement(long p50, long p99, long hits) {
+            this.p50 = p50;
+            this.p99 = p99;
+            this.hits = hits;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.ecommerce.productservice.service.impl;
+
+import com.ecommerce.productservice.cache.CategoryHierarchyCache;
+import com.ecommerce.productservice.cache.ProductResponseCache;
+import com.ecommerce.productservice.cache.SearchResultCache;
+import com.ecommerce.productservice.dto.ProductResponse;
+import com.ecommerce.productservice.entity.Category;
+import com.ecommerce.productservice.entity.Product;
+import com.ecommerce.productservice.mapper.ProductMapperImpl;
+import com.ecommerce.productservice.repository.CategoryRepository;
+import com.ecommerce.productservice.repository.PostgresRepositoryTest;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.ecommerce.productservice.service.CategoryStatsService;
+import com.ecommerce.productservice.service.EventPublisherService;
+import com.ecommerce.productservice.service.ProductOutboxService;
+import com.ecommerce.productservice.service.ProductSearchService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Product list reads must run a bounded number of statements however many products they
+ * return: the rows with their categories joined, plus image collections loaded in batches
+ * (hibernate.default_batch_fetch_size) rather than one query per product.
+ */
+@Import({ProductServiceImpl.class, ProductMapperImpl.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductServiceImplQueryCountTest extends PostgresRepositoryTest {
+
+    // The product rows with categories joined, then one batch for all of their image collections
+    private static final long MAX_STATEMENTS = 2;
+
+    private static final int PAGE_SIZE = 25;
+    private static final int PRODUCTS_PER_CATEGORY = 25;
+
+    @Autowired
+    private ProductServiceImpl productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private CategoryHierarchyCache categoryHierarchyCache;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @MockBean
+    private ProductOutboxService productOutboxService;
+
+    @MockBean
+    private ProductResponseCache productResponseCache;
+
+    @MockBean
+    private EventPublisherService eventPublisherService;
+
+    @MockBean
+    private SearchResultCache searchResultCache;
+
+    @MockBean
+    private CategoryStatsService categoryStatsService;
+
+    private Category parent;
+    private Category child;
+
+    @BeforeEach
+    void createCatalog() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            parent = categoryRepository.save(category(null));
+            child = categoryRepository.save(category(parent));
+            for (int i = 0; i < PRODUCTS_PER_CATEGORY; i++) {
+                productRepository.save(product(parent));
+                productRepository.save(product(child));
+            }
+        });
+    }
+
+    @Test
+    void productPageRunsABoundedNumberOfStatements() {
+        Statistics statistics = statistics();
+
+        List<ProductResponse> page = productService.getProductsAfter(null, PAGE_SIZE);
+
+        assertThat(page).hasSize(PAGE_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    void categoryProductsRunABoundedNumberOfStatements() {
+        when(categoryHierarchyCache.getSubtreeIds(parent.getId())).thenReturn(Set.of(parent.getId(), child.getId()));
+        Statistics statistics = statistics();
+
+        List<ProductResponse> products = productService.getProductsByCategoryId(parent.getId());
+
+        assertThat(products).hasSize(2 * PRODUCTS_PER_CATEGORY);
+        assertThat(products).allSatisfy(product -> {
+            assertThat(product.getCategoryName()).isNotNull();
+            assertThat(product.getImageUrls()).hasSize(2);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static Category category(Category parent) {
+        Category category = new Category();
+        category.setName("Category " + UUID.randomUUID());
+        category.setParent(parent);
+        return category;
+    }
+
+    private static Product product(Category category) {
+        String sku = "SKU-" + UUID.randomUUID();
+        Product product = new Product();
+        product.setName("Product " + sku);
+        product.setSku(sku);
+        product.setPrice(new BigDecimal("19.99"));
+        product.setStockQuantity(10);
+        product.setImageUrls(new HashSet<>(List.of("https://img.example.com/" + sku + "/1.jpg",
+                "https://img.example.com/" + sku + "/2.jpg")));
+        product.setCategory(category);
+        return product;
+    }
+}